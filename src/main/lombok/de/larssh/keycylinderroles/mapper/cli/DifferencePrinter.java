@@ -0,0 +1,93 @@
+package de.larssh.keycylinderroles.mapper.cli;
+
+import static java.util.stream.Collectors.joining;
+
+import java.io.PrintWriter;
+import java.util.Collection;
+import java.util.Map.Entry;
+import java.util.function.Consumer;
+
+import de.larssh.keycylinderroles.mapper.compare.Difference;
+import de.larssh.keycylinderroles.mapper.compare.IdentityMatches;
+import de.larssh.keycylinderroles.mapper.data.Cylinder;
+import de.larssh.keycylinderroles.mapper.data.Key;
+import de.larssh.utils.annotations.PackagePrivate;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.NonFinal;
+
+/**
+ * Prints differences in a human readable format and counts them. Differences
+ * are annotated with the roles granting the permission, if known.
+ */
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+class DifferencePrinter implements Consumer<Difference> {
+	/**
+	 * Appends the roles granting a permission to the line describing its
+	 * difference.
+	 *
+	 * @param line  the line describing a difference
+	 * @param roles the granting roles
+	 * @return {@code line}, followed by {@code roles} if there are any
+	 */
+	@PackagePrivate
+	static String appendRoles(final String line, final Collection<String> roles) {
+		return roles.isEmpty()
+				? line
+				: String.format("%s (Rollen: %s)",
+						line,
+						roles.stream().map(role -> '"' + role + '"').collect(joining(", ")));
+	}
+
+	/**
+	 * Writer to print to
+	 */
+	PrintWriter writer;
+
+	/**
+	 * Number of differences printed
+	 */
+	@NonFinal
+	@Getter(AccessLevel.PACKAGE)
+	int count;
+
+	/** {@inheritDoc} */
+	@Override
+	public void accept(final Difference difference) {
+		final String format = difference.isAdded()
+				? "NEU: \"%s\" (%s) soll jetzt auf \"%s\" (%s) berechtigt werden."
+				: "ALT: \"%s\" (%s) soll nicht länger auf \"%s\" (%s) berechtigt sein.";
+
+		final Key key = difference.getKey();
+		final Cylinder cylinder = difference.getCylinder();
+		final String line = String.format(format, key.getTitle(), key.getId(), cylinder.getTitle(), cylinder.getId());
+		writer.println(appendRoles(line, difference.getRoles()));
+
+		count += 1;
+	}
+
+	/**
+	 * Prints keys and cylinders, whose IDs changed.
+	 *
+	 * @param matches keys and cylinders matched despite their changed IDs
+	 */
+	public void printIdentityChanges(final IdentityMatches matches) {
+		final String format = "ID GEÄNDERT: \"%s\" (%s) hat jetzt die ID %s.";
+		for (final Entry<Key, Key> entry : matches.getKeys().entrySet()) {
+			writer.println(String
+					.format(format, entry.getValue().getTitle(), entry.getKey().getId(), entry.getValue().getId()));
+		}
+		for (final Entry<Cylinder, Cylinder> entry : matches.getCylinders().entrySet()) {
+			writer.println(String
+					.format(format, entry.getValue().getTitle(), entry.getKey().getId(), entry.getValue().getId()));
+		}
+	}
+
+	/**
+	 * Prints the number of differences printed so far.
+	 */
+	public void printSummary() {
+		writer.println(String.format("%d Unterschiede gefunden.", count));
+	}
+}
@@ -0,0 +1,64 @@
+package de.larssh.keycylinderroles.mapper.cli;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import de.larssh.keycylinderroles.mapper.data.KeyCylinderPermissions;
+import de.larssh.keycylinderroles.mapper.sheets.ReadOptions;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.NoArgsConstructor;
+import lombok.experimental.NonFinal;
+import picocli.CommandLine.Option;
+
+/**
+ * CLI options restricting the keys and cylinders to read
+ */
+@NoArgsConstructor
+class FilterOptions {
+	@NonFinal
+	@Option(names = "--building", description = "Reads cylinders of the given building only")
+	Optional<String> building = Optional.empty();
+
+	@NonFinal
+	@Option(names = "--section",
+			description = "Reads cylinders of the given section only. Not supported for CSV files, as they do not contain sections.")
+	Optional<String> section = Optional.empty();
+
+	@NonFinal
+	@Option(names = "--group", description = "Reads keys of the given group only")
+	Optional<String> group = Optional.empty();
+
+	/**
+	 * Applies the filters to {@code options}.
+	 *
+	 * @param options the read options to extend
+	 * @return the read options including filters
+	 */
+	public ReadOptions apply(final ReadOptions options) {
+		return options.withBuilding(building).withSection(section).withGroup(group);
+	}
+
+	/**
+	 * Reads the permissions of {@code path}, either as CSV or as Excel document,
+	 * applying the filters.
+	 *
+	 * @param path the input document
+	 * @return the permissions
+	 * @throws IOException on IO error
+	 */
+	public KeyCylinderPermissions read(final Path path) throws IOException {
+		return Inputs.read(path, apply(ReadOptions.DEFAULT));
+	}
+
+	/**
+	 * Dummy to avoid the IDE to mark some fields as {@code final}.
+	 */
+	@SuppressWarnings("PMD.UnusedPrivateMethod")
+	@SuppressFBWarnings(value = "UPM_UNCALLED_PRIVATE_METHOD", justification = "dummy method")
+	private void nonFinalDummy() {
+		building = Optional.empty();
+		section = building;
+		group = building;
+	}
+}
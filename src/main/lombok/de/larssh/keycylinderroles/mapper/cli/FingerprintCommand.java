@@ -0,0 +1,93 @@
+package de.larssh.keycylinderroles.mapper.cli;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+
+import de.larssh.keycylinderroles.mapper.data.Fingerprints;
+import de.larssh.utils.Nullables;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.NonFinal;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.ExitCode;
+import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+import picocli.CommandLine.Spec;
+
+/**
+ * CLI sub command printing the fingerprints of documents
+ */
+@RequiredArgsConstructor
+@Command(name = "fingerprint",
+		description = "Prints a fingerprint per document, which changes whenever IDs, ignore flags or permissions change.",
+		mixinStandardHelpOptions = true,
+		showDefaultValues = true,
+		usageHelpWidth = 160)
+public class FingerprintCommand implements Callable<Integer> {
+	private static final String FORMAT = "%016x  %s";
+
+	/**
+	 * Current {@link CommandSpec} instance
+	 */
+	@Spec
+	@NonFinal
+	@Nullable
+	CommandSpec commandSpec;
+
+	@Mixin
+	FilterOptions filterOptions = new FilterOptions();
+
+	@NonFinal
+	@Option(names = "--groups", description = "Prints the fingerprints per building and section, too")
+	boolean groups;
+
+	@NonFinal
+	@Parameters(arity = "1..*", descriptionKey = "DOCUMENTS", description = "Documents to fingerprint")
+	List<Path> documents = new ArrayList<>();
+
+	@Override
+	public Integer call() throws IOException {
+		for (final Path document : documents) {
+			final Fingerprints fingerprints = filterOptions.read(document).getFingerprints();
+			getStandardOutputWriter().println(String.format(FORMAT, fingerprints.getDocument(), document));
+
+			if (groups) {
+				for (final Entry<String, Long> group : fingerprints.getGroups().entrySet()) {
+					getStandardOutputWriter().println("  " + String.format(FORMAT, group.getValue(), group.getKey()));
+				}
+			}
+		}
+		return ExitCode.OK;
+	}
+
+	private CommandSpec getCommandSpec() {
+		return Nullables.orElseThrow(commandSpec);
+	}
+
+	/**
+	 * Returns the standard output writer based on the current {@link CommandSpec}.
+	 *
+	 * @return the standard output writer
+	 */
+	private PrintWriter getStandardOutputWriter() {
+		return getCommandSpec().commandLine().getOut();
+	}
+
+	/**
+	 * Dummy to avoid the IDE to mark some fields as {@code final}.
+	 */
+	@SuppressWarnings("PMD.UnusedPrivateMethod")
+	@SuppressFBWarnings(value = "UPM_UNCALLED_PRIVATE_METHOD", justification = "dummy method")
+	private void nonFinalDummy() {
+		groups = false;
+		documents = new ArrayList<>();
+	}
+}
@@ -0,0 +1,140 @@
+package de.larssh.keycylinderroles.mapper.cli;
+
+import static java.util.stream.Collectors.toList;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.stream.Stream;
+
+import de.larssh.keycylinderroles.mapper.compare.Comparisons;
+import de.larssh.keycylinderroles.mapper.data.KeyCylinderPermissions;
+import de.larssh.keycylinderroles.mapper.sheets.ReadOptions;
+import de.larssh.utils.Nullables;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.NonFinal;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.ExitCode;
+import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Parameters;
+import picocli.CommandLine.Spec;
+
+/**
+ * CLI sub command comparing each snapshot of a series with the one before it
+ */
+@Getter
+@RequiredArgsConstructor
+@Command(name = "history",
+		description = "Compares each snapshot with its previous one.",
+		mixinStandardHelpOptions = true,
+		showDefaultValues = true,
+		usageHelpWidth = 160)
+public class HistoryCommand implements Callable<Integer> {
+	/**
+	 * Current {@link CommandSpec} instance
+	 */
+	@Spec
+	@NonFinal
+	@Nullable
+	CommandSpec commandSpec;
+
+	@Mixin
+	FilterOptions filterOptions = new FilterOptions();
+
+	@NonFinal
+	@Parameters(arity = "1..*",
+			descriptionKey = "SNAPSHOTS",
+			description = "Ordered snapshots or a single directory containing them, ordered by file name. ZIP archives"
+					+ " are replaced by their entries.")
+	List<Path> snapshots = new ArrayList<>();
+
+	@Override
+	public Integer call() throws IOException {
+		final List<Input> inputs = getSnapshotInputs();
+		if (inputs.size() < 2) {
+			return ExitCode.OK;
+		}
+
+		// Snapshots are read one after another, right before being compared.
+		// Therefore at most two snapshots are held at once: the previous one and the
+		// current one. The previous snapshot is released before reading the next
+		// one, so that the peak does not grow with the number of snapshots.
+		final ReadOptions options = getFilterOptions().apply(ReadOptions.DEFAULT);
+		KeyCylinderPermissions previous = Inputs.read(inputs.get(0), options);
+		for (int index = 1; index < inputs.size(); index += 1) {
+			final KeyCylinderPermissions current = Inputs.read(inputs.get(index), options);
+			compare(inputs.get(index - 1), previous, inputs.get(index), current);
+			previous = current;
+		}
+		return ExitCode.OK;
+	}
+
+	private void compare(final Input sourceInput,
+			final KeyCylinderPermissions source,
+			final Input destinationInput,
+			final KeyCylinderPermissions destination) {
+		getStandardOutputWriter()
+				.println(String.format("Vergleich von \"%s\" mit \"%s\":", sourceInput, destinationInput));
+
+		final DifferencePrinter printer = new DifferencePrinter(getStandardOutputWriter());
+		Comparisons.compare(source, destination, printer);
+		printer.printSummary();
+	}
+
+	private List<Input> getSnapshotInputs() throws IOException {
+		final List<Input> inputs;
+		if (snapshots.size() == 1 && Files.isDirectory(snapshots.get(0))) {
+			try (Stream<Path> files = Files.list(snapshots.get(0))) {
+				inputs = files
+						.filter(file -> Files.isRegularFile(file)
+								&& (Inputs.isArchive(file) || Inputs.isDocument(file)))
+						.sorted()
+						.map(Input::ofFile)
+						.collect(toList());
+			}
+		} else {
+			inputs = snapshots.stream().map(Input::parse).collect(toList());
+		}
+
+		// ZIP archives are scanned for snapshots, which are read without extracting
+		final List<Input> snapshotInputs = new ArrayList<>();
+		for (final Input input : inputs) {
+			if (!input.getEntryName().isPresent() && Inputs.isArchive(input.getPath())) {
+				snapshotInputs.addAll(Inputs.listArchive(input.getPath()));
+			} else {
+				snapshotInputs.add(input);
+			}
+		}
+		return snapshotInputs;
+	}
+
+	private CommandSpec getCommandSpec() {
+		return Nullables.orElseThrow(commandSpec);
+	}
+
+	/**
+	 * Returns the standard output writer based on the current {@link CommandSpec}.
+	 *
+	 * @return the standard output writer
+	 */
+	private PrintWriter getStandardOutputWriter() {
+		return getCommandSpec().commandLine().getOut();
+	}
+
+	/**
+	 * Dummy to avoid the IDE to mark some fields as {@code final}.
+	 */
+	@SuppressWarnings("PMD.UnusedPrivateMethod")
+	@SuppressFBWarnings(value = "UPM_UNCALLED_PRIVATE_METHOD", justification = "dummy method")
+	private void nonFinalDummy() {
+		snapshots = new ArrayList<>();
+	}
+}
@@ -0,0 +1,93 @@
+package de.larssh.keycylinderroles.mapper.cli;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Input document, either a file or an entry of a ZIP archive
+ *
+ * <p>
+ * The name of an entry is kept apart from the path of its archive, as entry
+ * names are no valid paths in general. They may contain {@code ..}, backslashes
+ * or even the separator {@code !/}.
+ */
+@Getter
+@EqualsAndHashCode
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+final class Input {
+	/**
+	 * Separator between the path of a ZIP archive and the name of one of its
+	 * entries
+	 */
+	private static final String ARCHIVE_ENTRY_SEPARATOR = "!/";
+
+	/**
+	 * Creates an input from a CLI argument. Entries of ZIP archives are referred to
+	 * as {@code archive.zip!/entry}, given that {@code archive.zip} is an existing
+	 * file.
+	 *
+	 * @param path the CLI argument
+	 * @return the input
+	 */
+	public static Input parse(final Path path) {
+		final String value = path.toString().replace('\\', '/');
+		final int index = value.indexOf(ARCHIVE_ENTRY_SEPARATOR);
+		if (index < 0) {
+			return ofFile(path);
+		}
+
+		final Path archive = path.getFileSystem().getPath(path.toString().substring(0, index));
+		return Files.isRegularFile(archive)
+				? ofEntry(archive, value.substring(index + ARCHIVE_ENTRY_SEPARATOR.length()))
+				: ofFile(path);
+	}
+
+	/**
+	 * Creates an input referring to the file {@code path}.
+	 *
+	 * @param path the file
+	 * @return the input
+	 */
+	public static Input ofFile(final Path path) {
+		return new Input(path, Optional.empty());
+	}
+
+	/**
+	 * Creates an input referring to the entry {@code entryName} of the ZIP archive
+	 * {@code archive}.
+	 *
+	 * @param archive   the ZIP archive
+	 * @param entryName the exact name of the entry
+	 * @return the input
+	 */
+	public static Input ofEntry(final Path archive, final String entryName) {
+		return new Input(archive, Optional.of(entryName));
+	}
+
+	/**
+	 * The file or the ZIP archive containing the entry
+	 */
+	Path path;
+
+	/**
+	 * Name of the entry inside the ZIP archive {@link #getPath()} or empty if
+	 * {@link #getPath()} refers to the document itself
+	 */
+	Optional<String> entryName;
+
+	/**
+	 * Human readable representation as used for CLI arguments
+	 *
+	 * @return the path, followed by the entry name if any
+	 */
+	@Override
+	public String toString() {
+		return entryName.map(name -> path + ARCHIVE_ENTRY_SEPARATOR + name).orElseGet(path::toString);
+	}
+}
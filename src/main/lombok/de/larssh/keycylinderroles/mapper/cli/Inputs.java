@@ -0,0 +1,149 @@
+package de.larssh.keycylinderroles.mapper.cli;
+
+import static java.util.stream.Collectors.toList;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import de.larssh.keycylinderroles.mapper.data.KeyCylinderPermissions;
+import de.larssh.keycylinderroles.mapper.sheets.Documents;
+import de.larssh.keycylinderroles.mapper.sheets.ReadOptions;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Reading input documents given as CLI arguments
+ */
+@UtilityClass
+class Inputs {
+	/**
+	 * Argument value referring to the standard input
+	 */
+	private static final String STANDARD_INPUT = "-";
+
+	/**
+	 * File name extension of ZIP archives
+	 */
+	private static final String ARCHIVE_EXTENSION = ".zip";
+
+	/**
+	 * File name extensions of documents to read from ZIP archives and directories
+	 */
+	private static final List<String> DOCUMENT_EXTENSIONS = Arrays.asList(".csv", ".xls", ".xlsx");
+
+	/**
+	 * Reads the permissions of {@code path}, either as CSV or as Excel document.
+	 * The value {@code -} refers to the standard input.
+	 *
+	 * @param path the input document
+	 * @return the permissions
+	 * @throws IOException on IO error
+	 */
+	public static KeyCylinderPermissions read(final Path path) throws IOException {
+		return read(path, ReadOptions.DEFAULT);
+	}
+
+	/**
+	 * Reads the permissions of {@code path}, either as CSV or as Excel document.
+	 * The value {@code -} refers to the standard input.
+	 *
+	 * <p>
+	 * Entries of ZIP archives are referred to as {@code archive.zip!/entry}. They
+	 * are decompressed while reading, without extracting them to disk.
+	 *
+	 * @param path    the input document
+	 * @param options the read options
+	 * @return the permissions
+	 * @throws IOException on IO error
+	 */
+	public static KeyCylinderPermissions read(final Path path, final ReadOptions options) throws IOException {
+		return read(Input.parse(path), options);
+	}
+
+	/**
+	 * Reads the permissions of {@code input}, either as CSV or as Excel document.
+	 * The file {@code -} refers to the standard input. Entries of ZIP archives are
+	 * decompressed while reading, without extracting them to disk.
+	 *
+	 * @param input   the input document
+	 * @param options the read options
+	 * @return the permissions
+	 * @throws IOException on IO error
+	 */
+	public static KeyCylinderPermissions read(final Input input, final ReadOptions options) throws IOException {
+		if (!input.getEntryName().isPresent()) {
+			return STANDARD_INPUT.equals(input.getPath().toString())
+					? Documents.read(System.in, options)
+					: Documents.read(input.getPath(), options);
+		}
+
+		try (ZipFile zipFile = new ZipFile(input.getPath().toFile())) {
+			final ZipEntry entry = zipFile.getEntry(input.getEntryName().get());
+			if (entry == null || entry.isDirectory()) {
+				throw new NoSuchFileException(input.toString(), null, "No such entry in archive");
+			}
+			try (InputStream inputStream = zipFile.getInputStream(entry)) {
+				return Documents.read(inputStream, options);
+			}
+		}
+	}
+
+	/**
+	 * Determines if {@code path} is a ZIP archive, based on its file name.
+	 *
+	 * @param path the path
+	 * @return {@code true} if {@code path} is a ZIP archive file
+	 */
+	public static boolean isArchive(final Path path) {
+		final Path fileName = path.getFileName();
+		return fileName != null
+				&& fileName.toString().toLowerCase(Locale.ROOT).endsWith(ARCHIVE_EXTENSION)
+				&& Files.isRegularFile(path);
+	}
+
+	/**
+	 * Determines if {@code path} is a CSV or Excel document, based on its file
+	 * name.
+	 *
+	 * @param path the path
+	 * @return {@code true} if the file name of {@code path} has a document
+	 *         extension
+	 */
+	public static boolean isDocument(final Path path) {
+		final Path fileName = path.getFileName();
+		return fileName != null && isDocument(fileName.toString());
+	}
+
+	private static boolean isDocument(final String entryName) {
+		final String lowerCaseName = entryName.toLowerCase(Locale.ROOT);
+		return DOCUMENT_EXTENSIONS.stream().anyMatch(lowerCaseName::endsWith);
+	}
+
+	/**
+	 * Lists the CSV and Excel entries of the ZIP archive {@code archive} in order
+	 * of their names. Other entries, such as directories or notes, are skipped. The
+	 * returned inputs can be read using {@link #read(Input, ReadOptions)}.
+	 *
+	 * @param archive the ZIP archive
+	 * @return the inputs of all document entries
+	 * @throws IOException on IO error
+	 */
+	public static List<Input> listArchive(final Path archive) throws IOException {
+		try (ZipFile zipFile = new ZipFile(archive.toFile())) {
+			return zipFile.stream()
+					.filter(entry -> !entry.isDirectory())
+					.map(ZipEntry::getName)
+					.filter(Inputs::isDocument)
+					.sorted()
+					.map(name -> Input.ofEntry(archive, name))
+					.collect(toList());
+		}
+	}
+}
@@ -4,18 +4,26 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.function.Consumer;
 import java.util.jar.Attributes.Name;
 
-import org.apache.poi.poifs.filesystem.FileMagic;
-
+import de.larssh.keycylinderroles.mapper.compare.Comparisons;
+import de.larssh.keycylinderroles.mapper.compare.Difference;
+import de.larssh.keycylinderroles.mapper.compare.IdentityMatches;
+import de.larssh.keycylinderroles.mapper.compare.IdentityMatching;
+import de.larssh.keycylinderroles.mapper.compare.ThreeWayDifference;
 import de.larssh.keycylinderroles.mapper.data.Cylinder;
 import de.larssh.keycylinderroles.mapper.data.Key;
 import de.larssh.keycylinderroles.mapper.data.KeyCylinderPermissions;
-import de.larssh.keycylinderroles.mapper.sheets.csv.CsvFiles;
-import de.larssh.keycylinderroles.mapper.sheets.excel.ExcelFiles;
+import de.larssh.keycylinderroles.mapper.data.Roles;
+import de.larssh.keycylinderroles.mapper.roles.RoleFitting;
 import de.larssh.utils.Nullables;
 import de.larssh.utils.io.Resources;
 import de.larssh.utils.text.StringParseException;
@@ -28,7 +36,10 @@ import picocli.CommandLine;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.ExitCode;
 import picocli.CommandLine.IVersionProvider;
+import picocli.CommandLine.Mixin;
 import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.ParameterException;
 import picocli.CommandLine.Parameters;
 import picocli.CommandLine.Spec;
 
@@ -40,8 +51,10 @@ import picocli.CommandLine.Spec;
 @Command(name = "key-cylinder-roles-mapper",
 		mixinStandardHelpOptions = true,
 		showDefaultValues = true,
+		subcommands = { FingerprintCommand.class, HistoryCommand.class, MineRolesCommand.class },
 		usageHelpWidth = 160,
 		versionProvider = KeyCylinderRolesMapperCli.class)
+@SuppressWarnings("PMD.ExcessiveImports")
 public class KeyCylinderRolesMapperCli implements Callable<Integer>, IVersionProvider {
 	/**
 	 * The CLI interface of the Key Cylinder Roles Mapper
@@ -50,7 +63,9 @@ public class KeyCylinderRolesMapperCli implements Callable<Integer>, IVersionPro
 	 */
 	@SuppressWarnings("checkstyle:UncommentedMain")
 	public static void main(final String... args) {
-		System.exit(new CommandLine(new KeyCylinderRolesMapperCli()).execute(args));
+		System.exit(new CommandLine(new KeyCylinderRolesMapperCli())
+				.setExecutionExceptionHandler(new UnsupportedFilterExceptionHandler())
+				.execute(args));
 	}
 
 	/**
@@ -61,68 +76,181 @@ public class KeyCylinderRolesMapperCli implements Callable<Integer>, IVersionPro
 	@Nullable
 	CommandSpec commandSpec;
 
+	@Mixin
+	FilterOptions filterOptions = new FilterOptions();
+
 	@NonFinal
-	@Parameters(descriptionKey = "SOURCE")
+	@Parameters(arity = "0..1", descriptionKey = "SOURCE")
 	Path source = Paths.get("");
 
 	@NonFinal
-	@Parameters(descriptionKey = "DESTINATION")
+	@Parameters(arity = "0..1", descriptionKey = "DESTINATION")
 	Path destination = Paths.get("");
 
+	@NonFinal
+	@Option(names = "--baseline",
+			paramLabel = "BASELINE",
+			description = "Previous plan to classify differences between SOURCE and DESTINATION in three ways")
+	Optional<Path> baseline = Optional.empty();
+
+	@NonFinal
+	@Option(names = "--match-ids",
+			description = "Pairs keys and cylinders with changed IDs by similarity of their titles and permissions")
+	boolean matchIds;
+
+	@NonFinal
+	@Option(names = "--fit-roles",
+			description = "Suggests the best fitting roles of DESTINATION for each key with differences")
+	boolean fitRoles;
+
 	@Override
+	@SuppressFBWarnings(value = "WEM_WEAK_EXCEPTION_MESSAGING",
+			justification = "invalid combinations of CLI arguments are described sufficiently")
 	public Integer call() throws IOException, StringParseException {
-		final KeyCylinderPermissions sourcePermissions = read(getSource());
-		final KeyCylinderPermissions destinationPermissions = read(getDestination());
+		if (getSource().toString().isEmpty() || getDestination().toString().isEmpty()) {
+			throw new ParameterException(getCommandSpec().commandLine(),
+					"Missing required parameters: '<source>', '<destination>'");
+		}
+		if (isMatchIds() && getBaseline().isPresent()) {
+			throw new ParameterException(getCommandSpec().commandLine(),
+					"--match-ids cannot be combined with --baseline.");
+		}
 
-		comparePermissions(sourcePermissions, destinationPermissions);
+		final KeyCylinderPermissions sourcePermissions = getFilterOptions().read(getSource());
+		final KeyCylinderPermissions destinationPermissions = getFilterOptions().read(getDestination());
+		final Optional<Roles> catalogue = getCatalogue(destinationPermissions);
+
+		final IdentityMatches matches = isMatchIds()
+				? IdentityMatching.match(sourcePermissions, destinationPermissions)
+				: IdentityMatches.NONE;
+		final Set<Key> differingKeys = getBaseline().isPresent()
+				? compare(sourcePermissions, getFilterOptions().read(getBaseline().get()), destinationPermissions)
+				: compare(sourcePermissions, destinationPermissions, matches);
+
+		catalogue.ifPresent(
+				roles -> printRoleFits(roles, sourcePermissions, destinationPermissions, matches, differingKeys));
 		return ExitCode.OK;
 	}
 
-	private KeyCylinderPermissions read(final Path path) throws IOException {
-		return FileMagic.valueOf(path.toFile()) == FileMagic.UNKNOWN //
-				? CsvFiles.read(path)
-				: ExcelFiles.read(path);
+	/**
+	 * Returns the roles of {@code destination} to fit if {@code --fit-roles} is
+	 * given.
+	 *
+	 * @param destination the planned permissions
+	 * @return the roles to fit or empty if roles shall not be fitted
+	 */
+	private Optional<Roles> getCatalogue(final KeyCylinderPermissions destination) {
+		if (!isFitRoles()) {
+			return Optional.empty();
+		}
+		return Optional.of(destination.getRoles()
+				.orElseThrow(() -> new ParameterException(getCommandSpec().commandLine(),
+						"DESTINATION does not contain roles, which could be fitted.")));
+	}
+
+	/**
+	 * Prints the differences between {@code source} and {@code destination}.
+	 *
+	 * @param source      the installed permissions
+	 * @param destination the planned permissions
+	 * @param matches     keys and cylinders, whose IDs changed
+	 * @return the keys of {@code destination} with differences if roles shall be
+	 *         fitted
+	 */
+	private Set<Key> compare(final KeyCylinderPermissions source,
+			final KeyCylinderPermissions destination,
+			final IdentityMatches matches) {
+		final DifferencePrinter printer = new DifferencePrinter(getStandardOutputWriter());
+		printer.printIdentityChanges(matches);
+
+		final Set<Key> differingKeys = new LinkedHashSet<>();
+		final Consumer<Difference> consumer
+				= isFitRoles() ? printer.andThen(difference -> differingKeys.add(difference.getKey())) : printer;
+		Comparisons.compare(source, destination, matches, consumer);
+		printer.printSummary();
+		return differingKeys;
 	}
 
-	@SuppressWarnings({
-			"checkstyle:SuppressWarnings",
-			"PMD.AvoidDeeplyNestedIfStmts",
-			"PMD.CognitiveComplexity",
-			"resource" })
-	private void comparePermissions(final KeyCylinderPermissions source, final KeyCylinderPermissions destination) {
-		final Set<Key> keys = new LinkedHashSet<>(source.getKeys());
-		keys.addAll(destination.getKeys());
+	/**
+	 * Prints the differences between {@code source}, {@code baseline} and
+	 * {@code destination}.
+	 *
+	 * @param source      the installed permissions
+	 * @param baseline    the previously planned permissions
+	 * @param destination the currently planned permissions
+	 * @return the keys with differences, which are not reverted, if roles shall be
+	 *         fitted
+	 */
+	private Set<Key> compare(final KeyCylinderPermissions source,
+			final KeyCylinderPermissions baseline,
+			final KeyCylinderPermissions destination) {
+		final ThreeWayDifferencePrinter printer = new ThreeWayDifferencePrinter(getStandardOutputWriter());
+
+		final Set<Key> differingKeys = new LinkedHashSet<>();
+		Comparisons.compare(source, baseline, destination, printer.andThen(difference -> {
+			// Reverted permissions are installed as planned already.
+			if (isFitRoles() && difference.getKind() != ThreeWayDifference.Kind.REVERTED) {
+				differingKeys.add(difference.getKey());
+			}
+		}));
+		printer.printSummary();
+		return differingKeys;
+	}
 
-		final Set<Cylinder> cylinders = new LinkedHashSet<>(source.getCylinders());
-		cylinders.addAll(destination.getCylinders());
+	/**
+	 * Prints the roles of {@code catalogue}, which fit the permissions of
+	 * {@code keys} in {@code source} best.
+	 *
+	 * <p>
+	 * Differences refer to keys of {@code destination}. Keys, whose IDs changed,
+	 * are fitted to the permissions of their match in {@code source}, translated to
+	 * the cylinders of {@code destination}.
+	 *
+	 * @param catalogue   the roles of {@code destination}
+	 * @param source      the installed permissions
+	 * @param destination the planned permissions, including roles
+	 * @param matches     keys and cylinders, whose IDs changed
+	 * @param keys        the keys of {@code destination} to fit roles for
+	 */
+	private void printRoleFits(final Roles catalogue,
+			final KeyCylinderPermissions source,
+			final KeyCylinderPermissions destination,
+			final IdentityMatches matches,
+			final Set<Key> keys) {
+		final Map<Key, Key> sourceKeys = new HashMap<>(matches.getKeys().size());
+		matches.getKeys().forEach((sourceKey, destinationKey) -> sourceKeys.put(destinationKey, sourceKey));
 
-		int count = 0;
+		final Map<Key, Set<Cylinder>> targets = new LinkedHashMap<>(keys.size());
 		for (final Key key : keys) {
-			if (!source.isIgnore(key) && !destination.isIgnore(key)) {
-				for (final Cylinder cylinder : cylinders) {
-					if (!source.isIgnore(cylinder) && !destination.isIgnore(cylinder)) {
-						final boolean sourceAllows = source.allows(key, cylinder);
-						if (sourceAllows != destination.allows(key, cylinder)) {
-							final String format = sourceAllows
-									? "ALT: \"%s\" (%s) soll nicht länger auf \"%s\" (%s) berechtigt sein."
-									: "NEU: \"%s\" (%s) soll jetzt auf \"%s\" (%s) berechtigt werden.";
-
-							final Key outputKey = destination.get(key).orElse(key);
-							final Cylinder outputCylinder = destination.get(cylinder).orElse(cylinder);
-							getStandardOutputWriter().println(String.format(format,
-									outputKey.getTitle(),
-									outputKey.getId(),
-									outputCylinder.getTitle(),
-									outputCylinder.getId()));
-
-							count += 1;
-						}
-					}
-				}
-			}
+			targets.put(key, getTarget(source, destination, matches, sourceKeys.getOrDefault(key, key)));
 		}
 
-		getStandardOutputWriter().println(String.format("%d Unterschiede gefunden.", count));
+		RoleFitting.forCatalogue(catalogue).fit(targets).forEach(new RoleFitPrinter(getStandardOutputWriter()));
+	}
+
+	/**
+	 * Determines the cylinders of {@code destination} to fit roles to, based on the
+	 * permissions of {@code sourceKey} in {@code source}. Cylinders ignored by
+	 * either side are skipped.
+	 *
+	 * @param source      the installed permissions
+	 * @param destination the planned permissions
+	 * @param matches     keys and cylinders, whose IDs changed
+	 * @param sourceKey   the key of {@code source}
+	 * @return the cylinders to fit roles to
+	 */
+	private static Set<Cylinder> getTarget(final KeyCylinderPermissions source,
+			final KeyCylinderPermissions destination,
+			final IdentityMatches matches,
+			final Key sourceKey) {
+		final Set<Cylinder> target = new LinkedHashSet<>();
+		for (final Cylinder cylinder : source.getPermissions(sourceKey)) {
+			final Cylinder destinationCylinder = matches.getCylinders().getOrDefault(cylinder, cylinder);
+			if (!source.isIgnore(cylinder) && !destination.isIgnore(destinationCylinder)) {
+				target.add(destinationCylinder);
+			}
+		}
+		return target;
 	}
 
 	private CommandSpec getCommandSpec() {
@@ -155,5 +283,8 @@ public class KeyCylinderRolesMapperCli implements Callable<Integer>, IVersionPro
 	private void nonFinalDummy() {
 		source = Paths.get("");
 		destination = source;
+		baseline = Optional.empty();
+		matchIds = false;
+		fitRoles = false;
 	}
 }
@@ -0,0 +1,85 @@
+package de.larssh.keycylinderroles.mapper.cli;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.Callable;
+
+import de.larssh.keycylinderroles.mapper.data.KeyCylinderPermissions;
+import de.larssh.keycylinderroles.mapper.roles.MinedRoles;
+import de.larssh.keycylinderroles.mapper.roles.RoleMining;
+import de.larssh.keycylinderroles.mapper.sheets.excel.ExcelFiles;
+import de.larssh.utils.Nullables;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.NonFinal;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.ExitCode;
+import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Parameters;
+import picocli.CommandLine.Spec;
+
+/**
+ * CLI sub command deriving a role workbook from a permission matrix
+ */
+@RequiredArgsConstructor
+@Command(name = "mine-roles",
+		description = "Derives a small set of roles reproducing the permissions of SOURCE and writes them as Excel workbook.",
+		mixinStandardHelpOptions = true,
+		showDefaultValues = true,
+		usageHelpWidth = 160)
+public class MineRolesCommand implements Callable<Integer> {
+	/**
+	 * Current {@link CommandSpec} instance
+	 */
+	@Spec
+	@NonFinal
+	@Nullable
+	CommandSpec commandSpec;
+
+	@Mixin
+	FilterOptions filterOptions = new FilterOptions();
+
+	@NonFinal
+	@Parameters(index = "0", descriptionKey = "SOURCE", description = "Permissions to derive roles from")
+	Path source = Paths.get("");
+
+	@NonFinal
+	@Parameters(index = "1", descriptionKey = "OUTPUT", description = "Excel workbook (XLSX) to write")
+	Path output = Paths.get("");
+
+	@Override
+	public Integer call() throws IOException {
+		final KeyCylinderPermissions permissions = filterOptions.read(source);
+		final MinedRoles minedRoles = RoleMining.mine(permissions);
+
+		try (OutputStream outputStream = Files.newOutputStream(output)) {
+			ExcelFiles.write(outputStream, permissions.getKeys(), minedRoles.getRoles(), minedRoles.getKeyRoles());
+		}
+
+		getCommandSpec().commandLine()
+				.getOut()
+				.println(String.format("%d Rollen für %d Transponder ermittelt.",
+						minedRoles.getRoles().getNames().size(),
+						minedRoles.getKeyRoles().size()));
+		return ExitCode.OK;
+	}
+
+	private CommandSpec getCommandSpec() {
+		return Nullables.orElseThrow(commandSpec);
+	}
+
+	/**
+	 * Dummy to avoid the IDE to mark some fields as {@code final}.
+	 */
+	@SuppressWarnings("PMD.UnusedPrivateMethod")
+	@SuppressFBWarnings(value = "UPM_UNCALLED_PRIVATE_METHOD", justification = "dummy method")
+	private void nonFinalDummy() {
+		source = Paths.get("");
+		output = source;
+	}
+}
@@ -0,0 +1,39 @@
+package de.larssh.keycylinderroles.mapper.cli;
+
+import static java.util.stream.Collectors.joining;
+
+import java.io.PrintWriter;
+import java.util.function.BiConsumer;
+
+import de.larssh.keycylinderroles.mapper.data.Cylinder;
+import de.larssh.keycylinderroles.mapper.data.Key;
+import de.larssh.keycylinderroles.mapper.roles.RoleFit;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Prints role fits in a human readable format.
+ */
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+class RoleFitPrinter implements BiConsumer<Key, RoleFit> {
+	/**
+	 * Writer to print to
+	 */
+	PrintWriter writer;
+
+	/** {@inheritDoc} */
+	@Override
+	public void accept(final Key key, final RoleFit fit) {
+		final String roles = fit.getRoles().isEmpty()
+				? "keine Rolle"
+				: fit.getRoles().stream().map(role -> '"' + role + '"').collect(joining(", "));
+		writer.println(String.format("ROLLEN: \"%s\" (%s) passt am besten zu %s.", key.getTitle(), key.getId(), roles));
+
+		for (final Cylinder cylinder : fit.getMissing()) {
+			writer.println(String.format("  FEHLT: \"%s\" (%s)", cylinder.getTitle(), cylinder.getId()));
+		}
+		for (final Cylinder cylinder : fit.getExtra()) {
+			writer.println(String.format("  ZUSÄTZLICH: \"%s\" (%s)", cylinder.getTitle(), cylinder.getId()));
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package de.larssh.keycylinderroles.mapper.cli;
+
+import java.io.PrintWriter;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import de.larssh.keycylinderroles.mapper.compare.ThreeWayDifference;
+import de.larssh.keycylinderroles.mapper.compare.ThreeWayDifference.Kind;
+import de.larssh.keycylinderroles.mapper.data.Cylinder;
+import de.larssh.keycylinderroles.mapper.data.Key;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Prints three-way differences in a human readable format and counts them per
+ * kind. Differences are annotated with the roles granting the permission, if
+ * known.
+ */
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+class ThreeWayDifferencePrinter implements Consumer<ThreeWayDifference> {
+	/**
+	 * Writer to print to
+	 */
+	PrintWriter writer;
+
+	/**
+	 * Number of differences printed per kind
+	 */
+	Map<Kind, Integer> counts = new EnumMap<>(Kind.class);
+
+	/** {@inheritDoc} */
+	@Override
+	public void accept(final ThreeWayDifference difference) {
+		final Key key = difference.getKey();
+		final Cylinder cylinder = difference.getCylinder();
+		final String line = String
+				.format(getFormat(difference), key.getTitle(), key.getId(), cylinder.getTitle(), cylinder.getId());
+		writer.println(DifferencePrinter.appendRoles(line, difference.getRoles()));
+
+		counts.merge(difference.getKind(), 1, Integer::sum);
+	}
+
+	private static String getFormat(final ThreeWayDifference difference) {
+		final Kind kind = difference.getKind();
+		if (kind == Kind.NEW_IN_PLAN) {
+			return difference.isPlanned()
+					? "NEU IM PLAN: \"%s\" (%s) soll jetzt auf \"%s\" (%s) berechtigt werden."
+					: "NEU IM PLAN: \"%s\" (%s) soll nicht länger auf \"%s\" (%s) berechtigt sein.";
+		}
+		if (kind == Kind.REVERTED) {
+			return difference.isPlanned()
+					? "ZURÜCKGENOMMEN: \"%s\" (%s) soll doch weiterhin auf \"%s\" (%s) berechtigt sein."
+					: "ZURÜCKGENOMMEN: \"%s\" (%s) soll doch nicht auf \"%s\" (%s) berechtigt werden.";
+		}
+		return kind == Kind.STILL_PENDING
+				? "AUSSTEHEND: \"%s\" (%s) ist noch immer nicht auf \"%s\" (%s) berechtigt."
+				: "UNGEPLANT: \"%s\" (%s) ist ohne Planung auf \"%s\" (%s) berechtigt.";
+	}
+
+	/**
+	 * Prints the number of differences printed so far per kind.
+	 */
+	public void printSummary() {
+		writer.println(String.format(
+				"%d Unterschiede gefunden: %d neu im Plan, %d zurückgenommen, %d ausstehend, %d ungeplant.",
+				counts.values().stream().mapToInt(Integer::intValue).sum(),
+				counts.getOrDefault(Kind.NEW_IN_PLAN, 0),
+				counts.getOrDefault(Kind.REVERTED, 0),
+				counts.getOrDefault(Kind.STILL_PENDING, 0),
+				counts.getOrDefault(Kind.INSTALLED_OUT_OF_BAND, 0)));
+	}
+}
@@ -0,0 +1,29 @@
+package de.larssh.keycylinderroles.mapper.cli;
+
+import de.larssh.keycylinderroles.mapper.sheets.UnsupportedFilterException;
+import lombok.NoArgsConstructor;
+import picocli.CommandLine;
+import picocli.CommandLine.IExecutionExceptionHandler;
+import picocli.CommandLine.ParameterException;
+import picocli.CommandLine.ParseResult;
+
+/**
+ * Reports filters, which cannot be applied to an input document, the same way
+ * as invalid CLI arguments. Any other exception is rethrown.
+ */
+@NoArgsConstructor
+class UnsupportedFilterExceptionHandler implements IExecutionExceptionHandler {
+	/** {@inheritDoc} */
+	@Override
+	@SuppressWarnings("checkstyle:IllegalThrows")
+	public int handleExecutionException(final Exception exception,
+			final CommandLine commandLine,
+			final ParseResult parseResult) throws Exception {
+		if (!(exception instanceof UnsupportedFilterException)) {
+			throw exception;
+		}
+		return commandLine.getParameterExceptionHandler()
+				.handleParseException(new ParameterException(commandLine, exception.getMessage(), exception),
+						parseResult.originalArgs().toArray(new String[0]));
+	}
+}
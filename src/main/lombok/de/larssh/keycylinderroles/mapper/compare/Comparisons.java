@@ -0,0 +1,177 @@
+package de.larssh.keycylinderroles.mapper.compare;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import de.larssh.keycylinderroles.mapper.compare.PermissionWalk.Column;
+import de.larssh.keycylinderroles.mapper.compare.ThreeWayDifference.Kind;
+import de.larssh.keycylinderroles.mapper.data.KeyCylinderPermissions;
+import de.larssh.keycylinderroles.mapper.data.Profile;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Comparison of two or three {@link KeyCylinderPermissions}
+ */
+@UtilityClass
+public class Comparisons {
+	/**
+	 * Index of the source side
+	 */
+	private static final int SOURCE = 0;
+
+	/**
+	 * Index of the baseline side of three-way comparisons
+	 */
+	private static final int BASELINE = 1;
+
+	/**
+	 * Compares the permissions of {@code source} and {@code destination} and passes
+	 * each {@link Difference} to {@code consumer}.
+	 *
+	 * <p>
+	 * Differences are passed in order of keys and cylinders, starting with those of
+	 * {@code source}. Keys and cylinders ignored by any side are skipped.
+	 *
+	 * <p>
+	 * Keys with identical permissions share their {@link Profile}. The changed
+	 * cylinders are computed once per distinct pair of source and destination
+	 * profile and attributed to every key of that pair.
+	 *
+	 * <p>
+	 * {@link de.larssh.keycylinderroles.mapper.data.Fingerprints} of both sides are
+	 * compared top-down. Equal documents are not compared at all, groups of
+	 * cylinders and key rows with equal fingerprints are skipped. Skipping is
+	 * probabilistic: Differing content, whose 64 bit fingerprints collide
+	 * nonetheless, is not reported. That happens with a probability of about 2^-64
+	 * per document, group and key row.
+	 *
+	 * @param source      the source permissions
+	 * @param destination the destination permissions
+	 * @param consumer    consumer of differences
+	 */
+	public static void compare(final KeyCylinderPermissions source,
+			final KeyCylinderPermissions destination,
+			final Consumer<Difference> consumer) {
+		compare(source, destination, IdentityMatches.NONE, consumer);
+	}
+
+	/**
+	 * Compares the permissions of {@code source} and {@code destination} and passes
+	 * each {@link Difference} to {@code consumer}.
+	 *
+	 * <p>
+	 * Keys and cylinders of {@code matches} are compared with their matching
+	 * counterpart of {@code destination} instead of being removed and added as a
+	 * whole. Besides that this method works just like
+	 * {@link #compare(KeyCylinderPermissions, KeyCylinderPermissions, Consumer)}.
+	 *
+	 * @param source      the source permissions
+	 * @param destination the destination permissions
+	 * @param matches     keys and cylinders, whose IDs changed
+	 * @param consumer    consumer of differences
+	 */
+	public static void compare(final KeyCylinderPermissions source,
+			final KeyCylinderPermissions destination,
+			final IdentityMatches matches,
+			final Consumer<Difference> consumer) {
+		final GrantingRoles sourceRoles = new GrantingRoles(source);
+		final GrantingRoles destinationRoles = new GrantingRoles(destination);
+		new PermissionWalk(matches, source, destination).forEachChange(Comparisons::getChanges,
+				(key,
+						destinationKey,
+						change) -> consumer.accept(new Difference(destinationKey,
+								change.getColumn().getCylinder(),
+								change.isAdded(),
+								change.isAdded()
+										? destinationRoles.get(destinationKey, change.getColumn().getCylinder())
+										: sourceRoles.get(key, change.getColumn().getSourceCylinder()))));
+	}
+
+	/**
+	 * Compares the installed permissions of {@code source} with the previous plan
+	 * {@code baseline} and the current plan {@code destination} in a single pass
+	 * and passes each {@link ThreeWayDifference} to {@code consumer}.
+	 *
+	 * <p>
+	 * Differences are passed in order of keys and cylinders, starting with those of
+	 * {@code source}, followed by those of {@code baseline}. Keys and cylinders
+	 * ignored by any side are skipped.
+	 *
+	 * <p>
+	 * The differing cylinders are computed once per distinct triple of profiles and
+	 * attributed to every key of that triple. Groups of cylinders and key rows with
+	 * equal fingerprints on all three sides are skipped, which is probabilistic
+	 * just like
+	 * {@link #compare(KeyCylinderPermissions, KeyCylinderPermissions, Consumer)}.
+	 *
+	 * @param source      the installed permissions
+	 * @param baseline    the previously planned permissions
+	 * @param destination the currently planned permissions
+	 * @param consumer    consumer of differences
+	 */
+	public static void compare(final KeyCylinderPermissions source,
+			final KeyCylinderPermissions baseline,
+			final KeyCylinderPermissions destination,
+			final Consumer<ThreeWayDifference> consumer) {
+		final GrantingRoles baselineRoles = new GrantingRoles(baseline);
+		final GrantingRoles destinationRoles = new GrantingRoles(destination);
+		new PermissionWalk(IdentityMatches.NONE, source, baseline, destination).forEachChange(
+				Comparisons::getThreeWayChanges,
+				(key,
+						destinationKey,
+						change) -> consumer.accept(new ThreeWayDifference(destinationKey,
+								change.getColumn().getCylinder(),
+								change.getKind(),
+								change.isPlanned(),
+								(change.isPlanned() ? destinationRoles : baselineRoles).get(key,
+										change.getColumn().getCylinder()))));
+	}
+
+	private static List<Change> getChanges(final Iterable<Column> columns, final List<Profile> profiles) {
+		final List<Change> changes = new ArrayList<>();
+		for (final Column column : columns) {
+			final boolean sourceAllows = column.allows(profiles, SOURCE);
+			if (sourceAllows != column.allowsDestination(profiles)) {
+				changes.add(new Change(column, !sourceAllows));
+			}
+		}
+		return changes;
+	}
+
+	private static List<ThreeWayChange> getThreeWayChanges(final Iterable<Column> columns,
+			final List<Profile> profiles) {
+		final List<ThreeWayChange> changes = new ArrayList<>();
+		for (final Column column : columns) {
+			final boolean planned = column.allowsDestination(profiles);
+			final Optional<Kind> kind
+					= Kind.classify(column.allows(profiles, SOURCE), column.allows(profiles, BASELINE), planned);
+			if (kind.isPresent()) {
+				changes.add(new ThreeWayChange(column, kind.get(), planned));
+			}
+		}
+		return changes;
+	}
+
+	@Getter
+	@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+	private static final class Change {
+		Column column;
+
+		boolean added;
+	}
+
+	@Getter
+	@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+	private static final class ThreeWayChange {
+		Column column;
+
+		Kind kind;
+
+		boolean planned;
+	}
+}
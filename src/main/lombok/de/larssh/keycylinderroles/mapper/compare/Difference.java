@@ -0,0 +1,39 @@
+package de.larssh.keycylinderroles.mapper.compare;
+
+import java.util.SortedSet;
+
+import de.larssh.keycylinderroles.mapper.data.Cylinder;
+import de.larssh.keycylinderroles.mapper.data.Key;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Permission of a key for a cylinder, which differs between source and
+ * destination
+ */
+@Getter
+@ToString(callSuper = true)
+@EqualsAndHashCode(callSuper = true)
+public class Difference extends PermissionDifference {
+	/**
+	 * {@code true} if the destination allows {@link #getKey()} to open
+	 * {@link #getCylinder()}, else {@code false} if only the source allows it
+	 */
+	boolean added;
+
+	/**
+	 * Constructs a new difference.
+	 *
+	 * @param key      the key, preferably as known to the destination
+	 * @param cylinder the cylinder, preferably as known to the destination
+	 * @param added    {@code true} if the destination allows the permission, else
+	 *                 {@code false} if only the source allows it
+	 * @param roles    roles granting the permission, taken from the destination if
+	 *                 {@code added}, else from the source
+	 */
+	public Difference(final Key key, final Cylinder cylinder, final boolean added, final SortedSet<String> roles) {
+		super(key, cylinder, roles);
+		this.added = added;
+	}
+}
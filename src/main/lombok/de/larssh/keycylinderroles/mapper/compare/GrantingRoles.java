@@ -0,0 +1,62 @@
+package de.larssh.keycylinderroles.mapper.compare;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedSet;
+
+import de.larssh.keycylinderroles.mapper.data.Cylinder;
+import de.larssh.keycylinderroles.mapper.data.Key;
+import de.larssh.keycylinderroles.mapper.data.KeyCylinderPermissions;
+import de.larssh.keycylinderroles.mapper.data.Roles;
+import de.larssh.utils.annotations.PackagePrivate;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Roles granting the permissions of one {@link KeyCylinderPermissions},
+ * computed once per distinct set of roles and cylinder
+ */
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+final class GrantingRoles {
+	/**
+	 * The permissions granting cylinders
+	 */
+	KeyCylinderPermissions permissions;
+
+	/**
+	 * Granting roles by set of roles and cylinder. Sets of roles are interned per
+	 * document, therefore identity is sufficient.
+	 */
+	Map<Set<String>, Map<Cylinder, SortedSet<String>>> cache = new IdentityHashMap<>();
+
+	/**
+	 * Roles of {@code key} granting {@code cylinder}
+	 *
+	 * @param key      the key
+	 * @param cylinder the cylinder
+	 * @return sorted names of the granting roles or an empty set if
+	 *         {@link #permissions} are not based on roles
+	 */
+	@PackagePrivate
+	SortedSet<String> get(final Key key, final Cylinder cylinder) {
+		final Optional<Roles> roles = permissions.getRoles();
+		final Set<String> keyRoles = permissions.getKeyRoles(key);
+		if (!roles.isPresent() || keyRoles.isEmpty()) {
+			return Collections.emptySortedSet();
+		}
+
+		// Looking up before computing avoids allocating capturing lambdas per
+		// difference.
+		final Map<Cylinder, SortedSet<String>> cylinderRoles = cache.computeIfAbsent(keyRoles, k -> new HashMap<>());
+		SortedSet<String> grantingRoles = cylinderRoles.get(cylinder);
+		if (grantingRoles == null) {
+			grantingRoles = roles.get().getGrantingRoles(keyRoles, cylinder);
+			cylinderRoles.put(cylinder, grantingRoles);
+		}
+		return grantingRoles;
+	}
+}
@@ -0,0 +1,56 @@
+package de.larssh.keycylinderroles.mapper.compare;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.unmodifiableMap;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import de.larssh.keycylinderroles.mapper.data.Cylinder;
+import de.larssh.keycylinderroles.mapper.data.Key;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Keys and cylinders of the source, which are assumed to be the same as keys
+ * and cylinders of the destination, though their IDs changed
+ */
+@Getter
+@ToString
+public class IdentityMatches {
+	/**
+	 * No matches at all
+	 */
+	public static final IdentityMatches NONE = new IdentityMatches(emptyMap(), emptyMap());
+
+	/**
+	 * Keys of the destination by keys of the source in order of the source
+	 */
+	Map<Key, Key> keys;
+
+	/**
+	 * Cylinders of the destination by cylinders of the source in order of the
+	 * source
+	 */
+	Map<Cylinder, Cylinder> cylinders;
+
+	/**
+	 * Constructs new identity matches.
+	 *
+	 * @param keys      keys of the destination by keys of the source
+	 * @param cylinders cylinders of the destination by cylinders of the source
+	 */
+	public IdentityMatches(final Map<Key, Key> keys, final Map<Cylinder, Cylinder> cylinders) {
+		this.keys = unmodifiableMap(new LinkedHashMap<>(keys));
+		this.cylinders = unmodifiableMap(new LinkedHashMap<>(cylinders));
+	}
+
+	/**
+	 * Determines if neither keys nor cylinders have been matched.
+	 *
+	 * @return {@code true} if there are no matches
+	 */
+	public boolean isEmpty() {
+		return keys.isEmpty() && cylinders.isEmpty();
+	}
+}
@@ -0,0 +1,332 @@
+package de.larssh.keycylinderroles.mapper.compare;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.emptySet;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+import de.larssh.keycylinderroles.mapper.compare.NameIndex.Entry;
+import de.larssh.keycylinderroles.mapper.data.Cylinder;
+import de.larssh.keycylinderroles.mapper.data.Key;
+import de.larssh.keycylinderroles.mapper.data.KeyCylinderPermissions;
+import de.larssh.utils.annotations.PackagePrivate;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Matching keys and cylinders, whose IDs changed between source and
+ * destination, by similarity of their titles and permissions.
+ *
+ * <p>
+ * Only keys and cylinders known to one side are matched. Candidates need to
+ * share their block, which consists of the group of keys respectively the
+ * building and section of cylinders, as well as all numbers of their names.
+ * Therefore "Raum 101" is never matched with "Raum 105".
+ *
+ * <p>
+ * Within a block candidates are looked up using the locality sensitive hashing
+ * of {@link NameIndex}. Names exclude the group, building and section, as those
+ * are shared by too many values to tell them apart.
+ *
+ * <p>
+ * Candidates are verified using the exact Jaccard similarity of both, their
+ * name trigrams and their permissions. A pair is matched only if it is the best
+ * candidate of both its source and its destination by a margin. Ambiguous pairs
+ * are not matched at all, as reporting a removed and an added value is less
+ * misleading than reporting a wrong change of IDs.
+ */
+@UtilityClass
+@SuppressWarnings("PMD.CouplingBetweenObjects")
+public class IdentityMatching {
+	/**
+	 * Minimum Jaccard similarity of titles and permissions each
+	 */
+	private static final double MIN_SIMILARITY = 0.5;
+
+	/**
+	 * Minimum margin between the summed similarities of the best and the second
+	 * best candidate of a value
+	 */
+	private static final double AMBIGUITY_MARGIN = 0.1;
+
+	/**
+	 * Matches keys and cylinders known to only one of {@code source} and
+	 * {@code destination}. Ignored keys and cylinders are not matched.
+	 *
+	 * @param source      the source permissions
+	 * @param destination the destination permissions
+	 * @return the matches
+	 */
+	public static IdentityMatches match(final KeyCylinderPermissions source, final KeyCylinderPermissions destination) {
+		final Map<Key, Key> keys = matchValues(getUnmatched(source.getKeys(), destination::get, Key::isIgnore),
+				getUnmatched(destination.getKeys(), source::get, Key::isIgnore),
+				IdentityMatching::getName,
+				key -> key.getGroup().orElse(""),
+				key -> getCylinderIds(source, key),
+				key -> getCylinderIds(destination, key));
+
+		// Keys of the source are identified by their matches, as keys and cylinders
+		// might have been renumbered at once.
+		final Map<Cylinder, Cylinder> cylinders
+				= matchValues(getUnmatched(source.getCylinders(), destination::get, Cylinder::isIgnore),
+						getUnmatched(destination.getCylinders(), source::get, Cylinder::isIgnore),
+						Cylinder::getName,
+						Cylinder::getGroup,
+						cylinder -> getKeyIds(source, cylinder, keys),
+						cylinder -> getKeyIds(destination, cylinder, emptyMap()));
+		return keys.isEmpty() && cylinders.isEmpty() ? IdentityMatches.NONE : new IdentityMatches(keys, cylinders);
+	}
+
+	// Title of a key without its group
+	private static String getName(final Key key) {
+		return key.getName()
+				.orElseGet(() -> key.getLastName().orElse("")
+						+ key.getFirstName().map(firstName -> ", " + firstName).orElse(""));
+	}
+
+	private static <T> List<T> getUnmatched(final Set<T> values,
+			final Function<T, Optional<T>> other,
+			final Predicate<T> ignore) {
+		return values.stream()
+				.filter(value -> !ignore.test(value) && !other.apply(value).isPresent())
+				.collect(toList());
+	}
+
+	private static Set<String> getCylinderIds(final KeyCylinderPermissions permissions, final Key key) {
+		return permissions.getPermissions(key).stream().map(Cylinder::getId).collect(toSet());
+	}
+
+	private static Set<String> getKeyIds(final KeyCylinderPermissions permissions,
+			final Cylinder cylinder,
+			final Map<Key, Key> keyMatches) {
+		final Set<String> keyIds = new HashSet<>();
+		for (final Key key : permissions.getKeys()) {
+			if (permissions.allows(key, cylinder)) {
+				keyIds.add(keyMatches.getOrDefault(key, key).getId());
+			}
+		}
+		return keyIds;
+	}
+
+	/**
+	 * Matches {@code sources} with {@code destinations}.
+	 *
+	 * @param <T>                    the type of values
+	 * @param sources                unmatched values of the source
+	 * @param destinations           unmatched values of the destination
+	 * @param name                   name of a value
+	 * @param group                  group of a value, which needs to be equal for
+	 *                               matches
+	 * @param sourcePermissions      IDs a source value is permitted for
+	 * @param destinationPermissions IDs a destination value is permitted for
+	 * @return destination values by source values in order of {@code sources}
+	 */
+	private static <T> Map<T, T> matchValues(final List<T> sources,
+			final List<T> destinations,
+			final Function<T, String> name,
+			final Function<T, String> group,
+			final Function<T, Set<String>> sourcePermissions,
+			final Function<T, Set<String>> destinationPermissions) {
+		if (sources.isEmpty() || destinations.isEmpty()) {
+			return emptyMap();
+		}
+		final List<Candidate> candidates = getCandidates(NameIndex.toEntries(sources, name, group),
+				NameIndex.toEntries(destinations, name, group),
+				index -> sourcePermissions.apply(sources.get(index)),
+				index -> destinationPermissions.apply(destinations.get(index)));
+
+		final TopSimilarities sourceSimilarities
+				= new TopSimilarities(candidates, sources.size(), Candidate::getSourceIndex);
+		final TopSimilarities destinationSimilarities
+				= new TopSimilarities(candidates, destinations.size(), Candidate::getDestinationIndex);
+		final int[] matches = new int[sources.size()];
+		Arrays.fill(matches, -1);
+		for (final Candidate candidate : candidates) {
+			if (sourceSimilarities.isUnambiguous(candidate, candidate.getSourceIndex())
+					&& destinationSimilarities.isUnambiguous(candidate, candidate.getDestinationIndex())) {
+				matches[candidate.getSourceIndex()] = candidate.getDestinationIndex();
+			}
+		}
+
+		final Map<T, T> result = new LinkedHashMap<>();
+		for (int index = 0; index < matches.length; index += 1) {
+			if (matches[index] >= 0) {
+				result.put(sources.get(index), destinations.get(matches[index]));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Looks up candidates of the same block with similar names and verifies them
+	 * using their exact similarities.
+	 *
+	 * @param sources                unmatched entries of the source
+	 * @param destinations           unmatched entries of the destination
+	 * @param sourcePermissions      IDs a source value is permitted for by index
+	 * @param destinationPermissions IDs a destination value is permitted for by
+	 *                               index
+	 * @return the verified candidates in order of sources
+	 */
+	private static List<Candidate> getCandidates(final List<Entry> sources,
+			final List<Entry> destinations,
+			final IntFunction<Set<String>> sourcePermissions,
+			final IntFunction<Set<String>> destinationPermissions) {
+		final NameIndex index = new NameIndex(destinations);
+		final Map<Integer, Set<String>> destinationPermissionsCache = new HashMap<>();
+
+		final List<Candidate> candidates = new ArrayList<>();
+		for (int sourceIndex = 0; sourceIndex < sources.size(); sourceIndex += 1) {
+			final Entry source = sources.get(sourceIndex);
+			final Set<Integer> destinationIndexes = index.getSimilar(source);
+			final Set<String> permissions
+					= destinationIndexes.isEmpty() ? emptySet() : sourcePermissions.apply(sourceIndex);
+			for (final int destinationIndex : destinationIndexes) {
+				final OptionalDouble similarity = getSimilarity(source,
+						permissions,
+						destinations.get(destinationIndex),
+						() -> destinationPermissionsCache.computeIfAbsent(destinationIndex,
+								destinationPermissions::apply));
+				if (similarity.isPresent()) {
+					candidates.add(new Candidate(sourceIndex, destinationIndex, similarity.getAsDouble()));
+				}
+			}
+		}
+		return candidates;
+	}
+
+	/**
+	 * Summed similarities of names and permissions of a source and a destination
+	 *
+	 * @param source                 the source entry
+	 * @param sourcePermissions      IDs the source is permitted for
+	 * @param destination            the destination entry
+	 * @param destinationPermissions IDs the destination is permitted for
+	 * @return the summed similarities or empty if any of them is below
+	 *         {@link #MIN_SIMILARITY}
+	 */
+	private static OptionalDouble getSimilarity(final Entry source,
+			final Set<String> sourcePermissions,
+			final Entry destination,
+			final Supplier<Set<String>> destinationPermissions) {
+		final double nameSimilarity = getJaccardSimilarity(source.getNGrams(), destination.getNGrams());
+		if (nameSimilarity < MIN_SIMILARITY) {
+			return OptionalDouble.empty();
+		}
+
+		final double permissionSimilarity = getJaccardSimilarity(sourcePermissions, destinationPermissions.get());
+		return permissionSimilarity < MIN_SIMILARITY
+				? OptionalDouble.empty()
+				: OptionalDouble.of(nameSimilarity + permissionSimilarity);
+	}
+
+	private static double getJaccardSimilarity(final Set<String> first, final Set<String> second) {
+		if (first.isEmpty() && second.isEmpty()) {
+			return 1;
+		}
+
+		int intersection = 0;
+		for (final String value : first) {
+			if (second.contains(value)) {
+				intersection += 1;
+			}
+		}
+		return (double) intersection / (first.size() + second.size() - intersection);
+	}
+
+	/**
+	 * Verified pair of a source and a destination
+	 */
+	@Getter
+	@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+	private static final class Candidate {
+		/**
+		 * Index of the source
+		 */
+		int sourceIndex;
+
+		/**
+		 * Index of the destination
+		 */
+		int destinationIndex;
+
+		/**
+		 * Summed similarities of names and permissions
+		 */
+		double similarity;
+	}
+
+	/**
+	 * Highest and second highest similarity of all candidates per source
+	 * respectively destination
+	 */
+	@ToString
+	private static final class TopSimilarities {
+		/**
+		 * Highest similarities by source respectively destination index
+		 */
+		double[] highest;
+
+		/**
+		 * Second highest similarities by source respectively destination index
+		 */
+		double[] secondHighest;
+
+		/**
+		 * Computes the top similarities of {@code candidates}.
+		 *
+		 * @param candidates the candidates
+		 * @param size       the number of sources respectively destinations
+		 * @param index      the source respectively destination index of a candidate
+		 */
+		@PackagePrivate
+		TopSimilarities(final Iterable<Candidate> candidates, final int size, final ToIntFunction<Candidate> index) {
+			highest = new double[size];
+			secondHighest = new double[size];
+			for (final Candidate candidate : candidates) {
+				final int value = index.applyAsInt(candidate);
+				final double similarity = candidate.getSimilarity();
+				if (similarity > highest[value]) {
+					secondHighest[value] = highest[value];
+					highest[value] = similarity;
+				} else if (similarity > secondHighest[value]) {
+					secondHighest[value] = similarity;
+				}
+			}
+		}
+
+		/**
+		 * Determines if {@code candidate} is the best candidate of its source
+		 * respectively destination by at least {@link #AMBIGUITY_MARGIN}.
+		 *
+		 * @param candidate the candidate
+		 * @param index     the source respectively destination index of
+		 *                  {@code candidate}
+		 * @return {@code true} if {@code candidate} is unambiguous
+		 */
+		@PackagePrivate
+		boolean isUnambiguous(final Candidate candidate, final int index) {
+			final double similarity = candidate.getSimilarity();
+			return similarity >= highest[index] && secondHighest[index] <= similarity - AMBIGUITY_MARGIN;
+		}
+	}
+}
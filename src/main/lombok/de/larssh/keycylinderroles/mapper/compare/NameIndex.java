@@ -0,0 +1,204 @@
+package de.larssh.keycylinderroles.mapper.compare;
+
+import static de.larssh.keycylinderroles.mapper.utils.Hashes.hash;
+import static de.larssh.keycylinderroles.mapper.utils.Hashes.mix;
+import static java.util.Collections.emptyList;
+import static java.util.stream.Collectors.toList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import de.larssh.utils.annotations.PackagePrivate;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Index of names, looking up entries of the same block with similar names using
+ * locality sensitive hashing
+ *
+ * <p>
+ * Names are split into character trigrams, which are condensed to MinHash
+ * signatures. Entries sharing at least one band of their signature are looked
+ * up, so that the effort stays far below comparing all pairs.
+ */
+@ToString
+final class NameIndex {
+	/**
+	 * Number of bands of a MinHash signature
+	 */
+	private static final int NUMBER_OF_BANDS = 16;
+
+	/**
+	 * Number of MinHash values per band. Titles with a Jaccard similarity of 0.5
+	 * share a band with a probability of 99 percent.
+	 */
+	private static final int ROWS_PER_BAND = 2;
+
+	/**
+	 * Number of characters per n-gram
+	 */
+	private static final int N_GRAM_LENGTH = 3;
+
+	/**
+	 * Prepares {@code values} for indexing.
+	 *
+	 * @param <T>    the type of values
+	 * @param values the values
+	 * @param name   name of a value
+	 * @param group  group of a value, which needs to be equal for matches
+	 * @return the entries in order of {@code values}
+	 */
+	@PackagePrivate
+	static <T> List<Entry> toEntries(final Collection<T> values,
+			final Function<T, String> name,
+			final Function<T, String> group) {
+		final List<Entry> entries = new ArrayList<>(values.size());
+		for (final T value : values) {
+			final String valueName = name.apply(value);
+			final Set<String> nGrams = getNGrams(valueName);
+			final String block = group.apply(value) + '\n' + getNumbers(valueName);
+			entries.add(new Entry(nGrams, block, getSignature(nGrams, block)));
+		}
+		return entries;
+	}
+
+	// Character trigrams of the lower case name, padded by spaces
+	private static Set<String> getNGrams(final String name) {
+		final String padded = ' ' + name.toLowerCase(Locale.ROOT) + ' ';
+		final int length = padded.length();
+		final Set<String> nGrams = new HashSet<>(length);
+		for (int index = 0; index + N_GRAM_LENGTH <= length; index += 1) {
+			nGrams.add(padded.substring(index, index + N_GRAM_LENGTH));
+		}
+		return nGrams;
+	}
+
+	// Numbers contained in the name, separated by spaces
+	private static String getNumbers(final String name) {
+		final StringBuilder numbers = new StringBuilder();
+		boolean previousIsDigit = false;
+		for (int index = 0; index < name.length(); index += 1) {
+			final char character = name.charAt(index);
+			final boolean isDigit = Character.isDigit(character);
+			if (isDigit) {
+				if (!previousIsDigit && numbers.length() > 0) {
+					numbers.append(' ');
+				}
+				numbers.append(character);
+			}
+			previousIsDigit = isDigit;
+		}
+		return numbers.toString();
+	}
+
+	// MinHash signature, using one seeded hash function per value. Seeding by
+	// block keeps entries of different blocks apart in all bands.
+	private static long[] getSignature(final Set<String> nGrams, final String block) {
+		final long seed = hash(block);
+		final long[] signature = new long[NUMBER_OF_BANDS * ROWS_PER_BAND];
+		Arrays.fill(signature, Long.MAX_VALUE);
+		for (final String nGram : nGrams) {
+			final long hash = hash(nGram);
+			for (int index = 0; index < signature.length; index += 1) {
+				signature[index] = Math.min(signature[index], mix(hash ^ mix(seed + index)));
+			}
+		}
+		return signature;
+	}
+
+	private static long getBandHash(final long[] signature, final int band) {
+		long hash = 0;
+		for (int row = 0; row < ROWS_PER_BAND; row += 1) {
+			hash = mix(hash + signature[band * ROWS_PER_BAND + row]);
+		}
+		return hash;
+	}
+
+	/**
+	 * The indexed entries
+	 */
+	List<Entry> entries;
+
+	/**
+	 * Indexes of entries by the hash of each band of their signatures, skipping
+	 * entries without name
+	 */
+	List<Map<Long, List<Integer>>> bands
+			= Stream.<Map<Long, List<Integer>>>generate(HashMap::new).limit(NUMBER_OF_BANDS).collect(toList());
+
+	/**
+	 * Constructs a new index of {@code entries}.
+	 *
+	 * @param entries the entries to index
+	 */
+	@PackagePrivate
+	NameIndex(final List<Entry> entries) {
+		this.entries = entries;
+		for (int index = 0; index < entries.size(); index += 1) {
+			final Entry entry = entries.get(index);
+			if (!entry.getNGrams().isEmpty()) {
+				for (int band = 0; band < NUMBER_OF_BANDS; band += 1) {
+					add(band, getBandHash(entry.getSignature(), band), index);
+				}
+			}
+		}
+	}
+
+	private void add(final int band, final long bandHash, final int index) {
+		bands.get(band).computeIfAbsent(bandHash, hash -> new ArrayList<>()).add(index);
+	}
+
+	/**
+	 * Indexes of the entries, which share the block and at least one band of their
+	 * signature with {@code entry}
+	 *
+	 * @param entry the entry to look up
+	 * @return the sorted indexes of the indexed entries
+	 */
+	@PackagePrivate
+	Set<Integer> getSimilar(final Entry entry) {
+		final Set<Integer> indexes = new TreeSet<>();
+		if (!entry.getNGrams().isEmpty()) {
+			for (int band = 0; band < NUMBER_OF_BANDS; band += 1) {
+				indexes.addAll(bands.get(band).getOrDefault(getBandHash(entry.getSignature(), band), emptyList()));
+			}
+		}
+		indexes.removeIf(index -> !entry.getBlock().equals(entries.get(index).getBlock()));
+		return indexes;
+	}
+
+	/**
+	 * Name prepared for indexing
+	 */
+	@Getter
+	@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+	@PackagePrivate
+	static final class Entry {
+		/**
+		 * Character trigrams of the name
+		 */
+		Set<String> nGrams;
+
+		/**
+		 * Group and numbers of the name, which need to be equal for matches
+		 */
+		String block;
+
+		/**
+		 * MinHash signature of {@link #getNGrams()}, seeded by {@link #getBlock()}
+		 */
+		long[] signature;
+	}
+}
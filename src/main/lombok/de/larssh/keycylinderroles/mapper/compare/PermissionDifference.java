@@ -0,0 +1,38 @@
+package de.larssh.keycylinderroles.mapper.compare;
+
+import java.util.SortedSet;
+
+import de.larssh.keycylinderroles.mapper.data.Cylinder;
+import de.larssh.keycylinderroles.mapper.data.Key;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Permission of a key for a cylinder, which differs between the compared
+ * documents. This is the common part of {@link Difference} and
+ * {@link ThreeWayDifference}.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@RequiredArgsConstructor(access = AccessLevel.PROTECTED)
+public class PermissionDifference {
+	/**
+	 * The key, preferably as known to the destination
+	 */
+	Key key;
+
+	/**
+	 * The cylinder, preferably as known to the destination
+	 */
+	Cylinder cylinder;
+
+	/**
+	 * Roles of {@link #getKey()} granting the permission. Empty if the document the
+	 * roles are taken from is not based on roles or does not allow the permission.
+	 */
+	SortedSet<String> roles;
+}
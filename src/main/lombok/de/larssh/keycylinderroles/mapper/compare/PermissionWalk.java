@@ -0,0 +1,310 @@
+package de.larssh.keycylinderroles.mapper.compare;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+import de.larssh.keycylinderroles.mapper.data.Cylinder;
+import de.larssh.keycylinderroles.mapper.data.Key;
+import de.larssh.keycylinderroles.mapper.data.KeyCylinderPermissions;
+import de.larssh.keycylinderroles.mapper.data.Profile;
+import de.larssh.utils.annotations.PackagePrivate;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Walk over the keys and cylinders of two or more
+ * {@link KeyCylinderPermissions}, starting with the source and ending with the
+ * destination
+ *
+ * <p>
+ * Keys and cylinders ignored by any side are skipped.
+ * {@link de.larssh.keycylinderroles.mapper.data.Fingerprints} of all sides are
+ * compared top-down. Equal documents are not walked at all, groups of cylinders
+ * and key rows with equal fingerprints on all sides are skipped.
+ *
+ * <p>
+ * Keys with identical permissions share their {@link Profile}. Changes are
+ * computed once per distinct tuple of profiles and attributed to every key of
+ * that tuple.
+ */
+@ToString
+@SuppressWarnings("PMD.CouplingBetweenObjects")
+final class PermissionWalk {
+	private static boolean isEqual(final OptionalLong first, final OptionalLong second) {
+		return first.isPresent() && first.equals(second);
+	}
+
+	/**
+	 * Keys and cylinders of the source, whose IDs changed in the destination
+	 */
+	IdentityMatches matches;
+
+	/**
+	 * The permissions to walk, starting with the source and ending with the
+	 * destination
+	 */
+	List<KeyCylinderPermissions> sides;
+
+	/**
+	 * Constructs a new walk.
+	 *
+	 * @param matches keys and cylinders, whose IDs changed in the destination
+	 * @param sides   the permissions to walk, starting with the source and ending
+	 *                with the destination
+	 */
+	@PackagePrivate
+	PermissionWalk(final IdentityMatches matches, final KeyCylinderPermissions... sides) {
+		this.matches = matches;
+		this.sides = Arrays.asList(sides);
+	}
+
+	/**
+	 * Walks the keys in order of the sides and passes each change of each key to
+	 * {@code consumer}.
+	 *
+	 * @param <C>        the type of changes
+	 * @param getChanges computes the changes of the given columns for a tuple of
+	 *                   profiles in order of the sides
+	 * @param consumer   consumer of changes
+	 */
+	@PackagePrivate
+	<C> void forEachChange(final BiFunction<List<Column>, List<Profile>, List<C>> getChanges,
+			final ChangeConsumer<C> consumer) {
+		if (isEqualDocument()) {
+			return;
+		}
+
+		final List<Column> columns = getColumns();
+		final Map<List<Profile>, List<C>> changesByProfiles = new HashMap<>();
+		for (final Key key : getKeys()) {
+			if (!isIgnore(key) && !isEqualRow(key)) {
+				final List<C> changes = changesByProfiles.computeIfAbsent(getProfiles(key),
+						profiles -> getChanges.apply(columns, profiles));
+				if (!changes.isEmpty()) {
+					final Key destinationKey = getDestinationKey(key);
+					for (final C change : changes) {
+						consumer.accept(key, destinationKey, change);
+					}
+				}
+			}
+		}
+	}
+
+	private boolean isEqualDocument() {
+		for (int side = 1; side < sides.size(); side += 1) {
+			if (sides.get(side - 1).getFingerprints().getDocument() != sides.get(side)
+					.getFingerprints()
+					.getDocument()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private int getDestination() {
+		return sides.size() - 1;
+	}
+
+	private Set<Key> getKeys() {
+		final Set<Key> keys = new LinkedHashSet<>();
+		for (final KeyCylinderPermissions permissions : sides) {
+			keys.addAll(permissions.getKeys());
+		}
+		// Matched keys of the destination are walked together with their source
+		keys.removeAll(matches.getKeys().values());
+		return keys;
+	}
+
+	private Key getKey(final Key key, final int side) {
+		return side == getDestination() ? matches.getKeys().getOrDefault(key, key) : key;
+	}
+
+	private Key getDestinationKey(final Key key) {
+		for (int side = getDestination(); side >= 0; side -= 1) {
+			final Optional<Key> sideKey = sides.get(side).get(getKey(key, side));
+			if (sideKey.isPresent()) {
+				return sideKey.get();
+			}
+		}
+		return getKey(key, getDestination());
+	}
+
+	private boolean isIgnore(final Key key) {
+		for (int side = 0; side < sides.size(); side += 1) {
+			if (sides.get(side).isIgnore(getKey(key, side))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean isIgnore(final Cylinder cylinder) {
+		for (int side = 0; side < sides.size(); side += 1) {
+			if (sides.get(side).isIgnore(getCylinder(cylinder, side))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean isEqualRow(final Key key) {
+		for (int side = 1; side < sides.size(); side += 1) {
+			if (!isEqual(sides.get(side - 1).getFingerprints().getKey(getKey(key, side - 1)),
+					sides.get(side).getFingerprints().getKey(getKey(key, side)))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// Profiles are interned per document, therefore comparing equal tuples of
+	// profiles usually boils down to comparing identical instances.
+	private List<Profile> getProfiles(final Key key) {
+		final Profile[] profiles = new Profile[sides.size()];
+		for (int side = 0; side < profiles.length; side += 1) {
+			profiles[side] = sides.get(side).getProfile(getKey(key, side));
+		}
+		return Arrays.asList(profiles);
+	}
+
+	/**
+	 * Columns of cylinders to walk, skipping ignored cylinders and groups with
+	 * equal fingerprints on all sides
+	 *
+	 * @return the columns to walk
+	 */
+	private List<Column> getColumns() {
+		final Set<Cylinder> cylinders = new LinkedHashSet<>();
+		for (final KeyCylinderPermissions permissions : sides) {
+			cylinders.addAll(permissions.getCylinders());
+		}
+		// Matched cylinders of the destination are walked together with their source
+		cylinders.removeAll(matches.getCylinders().values());
+
+		final List<Column> columns = new ArrayList<>(cylinders.size());
+		for (final Cylinder cylinder : cylinders) {
+			if (!isIgnore(cylinder) && !isEqualGroup(cylinder)) {
+				columns.add(createColumn(cylinder));
+			}
+		}
+		return columns;
+	}
+
+	private Cylinder getCylinder(final Cylinder cylinder, final int side) {
+		return side == getDestination() ? matches.getCylinders().getOrDefault(cylinder, cylinder) : cylinder;
+	}
+
+	/**
+	 * Determines if {@code cylinder} belongs to the same group on all sides and
+	 * that group has equal fingerprints. All permissions of such cylinders are
+	 * equal.
+	 *
+	 * @param cylinder the cylinder
+	 * @return {@code true} if the group of {@code cylinder} is equal
+	 */
+	private boolean isEqualGroup(final Cylinder cylinder) {
+		final Optional<String> group = sides.get(0).get(cylinder).map(Cylinder::getGroup);
+		if (!group.isPresent()) {
+			return false;
+		}
+		for (int side = 1; side < sides.size(); side += 1) {
+			if (!group.equals(sides.get(side).get(getCylinder(cylinder, side)).map(Cylinder::getGroup))
+					|| !isEqual(sides.get(side - 1).getFingerprints().getGroup(group.get()),
+							sides.get(side).getFingerprints().getGroup(group.get()))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private Column createColumn(final Cylinder cylinder) {
+		Optional<Cylinder> destinationCylinder = Optional.empty();
+		final int[] indexes = new int[sides.size()];
+		for (int side = getDestination(); side >= 0; side -= 1) {
+			final KeyCylinderPermissions permissions = sides.get(side);
+			final Cylinder sideCylinder = getCylinder(cylinder, side);
+			indexes[side] = permissions.getCylinderIndex(sideCylinder).orElse(-1);
+			if (!destinationCylinder.isPresent()) {
+				destinationCylinder = permissions.get(sideCylinder);
+			}
+		}
+		return new Column(destinationCylinder.orElseGet(() -> getCylinder(cylinder, getDestination())),
+				cylinder,
+				indexes);
+	}
+
+	/**
+	 * Consumer of the changes of a key
+	 *
+	 * @param <C> the type of changes
+	 */
+	@FunctionalInterface
+	@PackagePrivate
+	interface ChangeConsumer<C> {
+		/**
+		 * Performs this operation on the given change.
+		 *
+		 * @param key            the key as known to the source
+		 * @param destinationKey the key, preferably as known to the destination
+		 * @param change         the change
+		 */
+		void accept(Key key, Key destinationKey, C change);
+	}
+
+	/**
+	 * Cylinder to compare with its index on each side
+	 */
+	@Getter
+	@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+	@PackagePrivate
+	static final class Column {
+		/**
+		 * The cylinder, preferably as known to the destination
+		 */
+		Cylinder cylinder;
+
+		/**
+		 * The cylinder as known to the source
+		 */
+		Cylinder sourceCylinder;
+
+		/**
+		 * Index of the cylinder on each side or {@code -1} if unknown to that side
+		 */
+		@Getter(AccessLevel.NONE)
+		int[] indexes;
+
+		/**
+		 * Determines if the profile of {@code side} allows this cylinder.
+		 *
+		 * @param profiles profiles in order of the sides
+		 * @param side     index of the side
+		 * @return {@code true} if the cylinder is allowed
+		 */
+		@PackagePrivate
+		boolean allows(final List<Profile> profiles, final int side) {
+			return profiles.get(side).allows(indexes[side]);
+		}
+
+		/**
+		 * Determines if the profile of the destination allows this cylinder.
+		 *
+		 * @param profiles profiles in order of the sides
+		 * @return {@code true} if the cylinder is allowed
+		 */
+		@PackagePrivate
+		boolean allowsDestination(final List<Profile> profiles) {
+			return allows(profiles, indexes.length - 1);
+		}
+	}
+}
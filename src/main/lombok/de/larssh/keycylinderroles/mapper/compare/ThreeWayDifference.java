@@ -0,0 +1,96 @@
+package de.larssh.keycylinderroles.mapper.compare;
+
+import java.util.Optional;
+import java.util.SortedSet;
+
+import de.larssh.keycylinderroles.mapper.data.Cylinder;
+import de.larssh.keycylinderroles.mapper.data.Key;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Permission of a key for a cylinder, which differs between the installed
+ * state, the previous plan (baseline) and the current plan
+ */
+@Getter
+@ToString(callSuper = true)
+@EqualsAndHashCode(callSuper = true)
+public class ThreeWayDifference extends PermissionDifference {
+	/**
+	 * Classification of the difference
+	 */
+	Kind kind;
+
+	/**
+	 * {@code true} if the current plan allows {@link #getKey()} to open
+	 * {@link #getCylinder()}
+	 */
+	boolean planned;
+
+	/**
+	 * Constructs a new three-way difference.
+	 *
+	 * @param key      the key, preferably as known to the current plan
+	 * @param cylinder the cylinder, preferably as known to the current plan
+	 * @param kind     classification of the difference
+	 * @param planned  {@code true} if the current plan allows the permission
+	 * @param roles    roles granting the permission, taken from the current plan if
+	 *                 {@code planned}, else from the baseline
+	 */
+	public ThreeWayDifference(final Key key,
+			final Cylinder cylinder,
+			final Kind kind,
+			final boolean planned,
+			final SortedSet<String> roles) {
+		super(key, cylinder, roles);
+		this.kind = kind;
+		this.planned = planned;
+	}
+
+	/**
+	 * Classification of a permission based on its state in the installed state, the
+	 * baseline and the current plan
+	 */
+	public enum Kind {
+		/**
+		 * The plan changed since the baseline, while the installed state still matches
+		 * the baseline.
+		 */
+		NEW_IN_PLAN,
+
+		/**
+		 * The plan changed since the baseline back to the installed state, which never
+		 * caught up with the baseline.
+		 */
+		REVERTED,
+
+		/**
+		 * Both plans allow the permission, but it has not been installed yet.
+		 */
+		STILL_PENDING,
+
+		/**
+		 * The permission has been installed, though neither plan allows it.
+		 */
+		INSTALLED_OUT_OF_BAND;
+
+		/**
+		 * Classifies a permission based on its state in all three documents.
+		 *
+		 * @param installed {@code true} if the installed state allows the permission
+		 * @param baseline  {@code true} if the baseline allows the permission
+		 * @param planned   {@code true} if the current plan allows the permission
+		 * @return the classification or empty if all three are equal
+		 */
+		public static Optional<Kind> classify(final boolean installed, final boolean baseline, final boolean planned) {
+			if (baseline != planned) {
+				return Optional.of(installed == baseline ? NEW_IN_PLAN : REVERTED);
+			}
+			if (installed == planned) {
+				return Optional.empty();
+			}
+			return Optional.of(planned ? STILL_PENDING : INSTALLED_OUT_OF_BAND);
+		}
+	}
+}
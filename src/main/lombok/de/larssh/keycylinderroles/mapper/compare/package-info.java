@@ -0,0 +1,5 @@
+/**
+ * Comparison of key-cylinder permissions
+ */
+@de.larssh.utils.annotations.NonNullByDefault
+package de.larssh.keycylinderroles.mapper.compare;
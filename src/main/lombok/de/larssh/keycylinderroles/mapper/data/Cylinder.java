@@ -1,15 +1,15 @@
 package de.larssh.keycylinderroles.mapper.data;
 
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 import lombok.ToString;
 
 @Getter
 @ToString
-@RequiredArgsConstructor
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 public class Cylinder {
 	@EqualsAndHashCode.Include
@@ -22,8 +22,32 @@ public class Cylinder {
 
 	Optional<String> building;
 
+	/**
+	 * Name of the group the cylinder belongs to, consisting of its building and
+	 * section. It is empty for cylinders without building and section.
+	 */
+	String group;
+
 	boolean ignore;
 
+	@SuppressWarnings({ "checkstyle:MultipleStringLiterals", "PMD.ShortVariable" })
+	public Cylinder(final String id,
+			final String name,
+			final Optional<String> section,
+			final Optional<String> building,
+			final boolean ignore) {
+		this.id = id;
+		this.name = name;
+		this.section = section;
+		this.building = building;
+		this.ignore = ignore;
+
+		group = Stream.of(building, section)
+				.filter(Optional::isPresent)
+				.map(Optional::get)
+				.collect(Collectors.joining(", "));
+	}
+
 	@SuppressWarnings("checkstyle:MultipleStringLiterals")
 	public String getTitle() {
 		final String title = getBuilding().map(building -> building + ", ").orElse("")
@@ -0,0 +1,156 @@
+package de.larssh.keycylinderroles.mapper.data;
+
+import static de.larssh.keycylinderroles.mapper.utils.Hashes.GOLDEN_GAMMA;
+import static de.larssh.keycylinderroles.mapper.utils.Hashes.hash;
+import static de.larssh.keycylinderroles.mapper.utils.Hashes.mix;
+import static java.util.Collections.unmodifiableMap;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.OptionalLong;
+
+import de.larssh.utils.annotations.PackagePrivate;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Hierarchical 64 bit fingerprints of {@link KeyCylinderPermissions}, one per
+ * key row, one per group of cylinders and one per document.
+ *
+ * <p>
+ * Fingerprints depend on IDs, ignore flags and permissions only, not on the
+ * order of keys and cylinders. Therefore equal fingerprints of two documents
+ * indicate equal permissions, while different fingerprints locate changes.
+ * Unequal content results in equal fingerprints with a probability of about
+ * 2^-64 only. Fingerprints are not verified against the content, therefore such
+ * a collision hides a change.
+ *
+ * <p>
+ * Cylinders are grouped by {@link Cylinder#getGroup()}.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class Fingerprints {
+	/**
+	 * Computes the fingerprints of {@code permissions}.
+	 *
+	 * <p>
+	 * Cylinder hashes are summed per profile and group once, so that the effort
+	 * scales with the number of distinct profiles rather than permissions.
+	 *
+	 * @param permissions the permissions
+	 * @return the fingerprints
+	 */
+	@PackagePrivate
+	static Fingerprints compute(final KeyCylinderPermissions permissions) {
+		final List<Cylinder> cylinders = new ArrayList<>(permissions.getCylinders());
+		final Map<String, Integer> groupIndexes = new LinkedHashMap<>();
+		final int[] cylinderGroups = new int[cylinders.size()];
+		final long[] cylinderHashes = new long[cylinders.size()];
+		for (int index = 0; index < cylinders.size(); index += 1) {
+			final Cylinder cylinder = cylinders.get(index);
+			cylinderGroups[index] = groupIndexes.computeIfAbsent(cylinder.getGroup(), group -> groupIndexes.size());
+			cylinderHashes[index] = mix(hash(cylinder.getId()));
+		}
+
+		// Cylinders themselves
+		final long[] groupHashes = new long[groupIndexes.size()];
+		for (int index = 0; index < cylinders.size(); index += 1) {
+			groupHashes[cylinderGroups[index]] += mix(cylinderHashes[index] + flag(cylinders.get(index).isIgnore()));
+		}
+
+		// Permissions, summed per profile and group
+		final Map<Profile, long[]> profileGroupSums = new IdentityHashMap<>(permissions.getNumberOfProfiles());
+		final Map<Key, Long> keyHashes = new LinkedHashMap<>(permissions.getKeys().size());
+		long keysHash = 0;
+		for (final Key key : permissions.getKeys()) {
+			final Profile profile = permissions.getProfile(key);
+			final long[] sums = profileGroupSums.computeIfAbsent(profile,
+					p -> sumPerGroup(p, cylinderHashes, cylinderGroups, groupHashes.length));
+
+			// Row fingerprints do not depend on groups, so that documents with different
+			// groups still share them.
+			final long keyHash = mix(hash(key.getId()));
+			long profileSum = 0;
+			for (int group = 0; group < sums.length; group += 1) {
+				groupHashes[group] += keyHash * sums[group];
+				profileSum += sums[group];
+			}
+			final long rowHash = mix(mix(keyHash + flag(key.isIgnore())) + mix(profileSum));
+
+			keyHashes.put(key, rowHash);
+			keysHash += rowHash;
+		}
+
+		final Map<String, Long> groups = new LinkedHashMap<>(groupIndexes.size());
+		long documentHash = mix(keysHash);
+		for (final Entry<String, Integer> group : groupIndexes.entrySet()) {
+			final long groupHash = mix(groupHashes[group.getValue()]);
+			groups.put(group.getKey(), groupHash);
+			documentHash += mix(hash(group.getKey()) + groupHash);
+		}
+		return new Fingerprints(mix(documentHash), unmodifiableMap(groups), unmodifiableMap(keyHashes));
+	}
+
+	private static long[] sumPerGroup(final Profile profile,
+			final long[] cylinderHashes,
+			final int[] cylinderGroups,
+			final int numberOfGroups) {
+		final long[] sums = new long[numberOfGroups];
+		for (int index = 0; index < cylinderHashes.length; index += 1) {
+			if (profile.allows(index)) {
+				sums[cylinderGroups[index]] += cylinderHashes[index];
+			}
+		}
+		return sums;
+	}
+
+	private static long flag(final boolean value) {
+		return value ? GOLDEN_GAMMA : 0;
+	}
+
+	/**
+	 * Fingerprint of the whole document
+	 */
+	long document;
+
+	/**
+	 * Fingerprints by group of cylinders in order of their first cylinder
+	 */
+	Map<String, Long> groups;
+
+	/**
+	 * Fingerprints by key row in order of keys
+	 */
+	@ToString.Exclude
+	Map<Key, Long> keys;
+
+	/**
+	 * Fingerprint of the group named {@code group}
+	 *
+	 * @param group the group name
+	 * @return the fingerprint or empty if there is no such group
+	 */
+	public OptionalLong getGroup(final String group) {
+		final Long hash = groups.get(group);
+		return hash == null ? OptionalLong.empty() : OptionalLong.of(hash);
+	}
+
+	/**
+	 * Fingerprint of the permission row of {@code key}
+	 *
+	 * @param key the key
+	 * @return the fingerprint or empty if the key is unknown
+	 */
+	public OptionalLong getKey(final Key key) {
+		final Long hash = keys.get(key);
+		return hash == null ? OptionalLong.empty() : OptionalLong.of(hash);
+	}
+}
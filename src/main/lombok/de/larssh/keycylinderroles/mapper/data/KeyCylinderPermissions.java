@@ -1,41 +1,137 @@
 package de.larssh.keycylinderroles.mapper.data;
 
 import static de.larssh.utils.Collectors.toLinkedHashMap;
-import static de.larssh.utils.Collectors.toMap;
+import static java.util.Collections.unmodifiableList;
+import static java.util.stream.Collectors.toCollection;
 
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.Set;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
-import de.larssh.utils.collection.Maps;
+import de.larssh.utils.Finals;
+import de.larssh.utils.Nullables;
+import lombok.Getter;
 import lombok.ToString;
 
+/**
+ * Permissions of keys to open cylinders.
+ *
+ * <p>
+ * Permissions are stored as {@link Profile} per key. Identical profiles are
+ * stored once and shared by all keys with the same permissions, so that memory
+ * use scales with the number of distinct profiles.
+ */
 @ToString
-public class KeyCylinderPermissions {
+@SuppressWarnings("PMD.CouplingBetweenObjects")
+public final class KeyCylinderPermissions {
+	private static final Profile EMPTY_PROFILE = new Profile(new BitSet());
+
 	Map<Key, Key> keys;
 
 	Map<Cylinder, Cylinder> cylinders;
 
-	Map<Key, Set<Cylinder>> permissions;
+	List<Cylinder> cylinderList;
+
+	Map<Cylinder, Integer> cylinderIndexes;
+
+	@ToString.Exclude
+	Map<Key, Profile> profiles;
+
+	/**
+	 * Number of distinct profiles, excluding the empty profile
+	 */
+	@Getter
+	int numberOfProfiles;
+
+	/**
+	 * Catalogue of roles the permissions are based on, if any
+	 */
+	@Getter
+	Optional<Roles> roles;
+
+	/**
+	 * Roles assigned to keys. Identical sets of roles are shared by all keys with
+	 * the same roles.
+	 */
+	@ToString.Exclude
+	Map<Key, Set<String>> keyRoles;
+
+	@ToString.Exclude
+	Supplier<Fingerprints> fingerprints = Finals.lazy(() -> Fingerprints.compute(this));
 
 	public KeyCylinderPermissions(final Collection<Key> keys,
 			final Collection<Cylinder> cylinders,
 			final Map<Key, Set<Cylinder>> permissions) {
+		this(keys, cylinders, permissions, Optional.empty(), Collections.emptyMap());
+	}
+
+	public KeyCylinderPermissions(final Collection<Key> keys,
+			final Collection<Cylinder> cylinders,
+			final Map<Key, Set<Cylinder>> permissions,
+			final Optional<Roles> roles,
+			final Map<Key, Set<String>> keyRoles) {
 		this.keys = keys.stream().collect(toLinkedHashMap(Function.identity(), Function.identity()));
 		this.cylinders = cylinders.stream().collect(toLinkedHashMap(Function.identity(), Function.identity()));
-		this.permissions = permissions.entrySet()
-				.stream()
-				.map(entry -> Maps.entry(entry.getKey(), new HashSet<>(entry.getValue())))
-				.collect(toMap(Entry::getKey, Entry::getValue));
+		cylinderList = unmodifiableList(new ArrayList<>(this.cylinders.keySet()));
+
+		final Map<Cylinder, Integer> indexes = new HashMap<>(cylinderList.size());
+		for (final Cylinder cylinder : cylinderList) {
+			indexes.put(cylinder, indexes.size());
+		}
+		cylinderIndexes = indexes;
+
+		// Interning identical profiles
+		final Map<Profile, Profile> interned = new HashMap<>(permissions.size());
+		final Map<Key, Profile> keyProfiles = new HashMap<>(permissions.size());
+		for (final Entry<Key, Set<Cylinder>> entry : permissions.entrySet()) {
+			if (!entry.getValue().isEmpty()) {
+				keyProfiles.put(entry.getKey(),
+						interned.computeIfAbsent(toProfile(entry.getValue()), Function.identity()));
+			}
+		}
+		profiles = keyProfiles;
+		numberOfProfiles = interned.size();
+
+		this.roles = roles;
+
+		// Interning identical sets of roles
+		final Map<Set<String>, Set<String>> internedRoles = new HashMap<>(keyRoles.size());
+		final Map<Key, Set<String>> assignedRoles = new HashMap<>(keyRoles.size());
+		for (final Entry<Key, Set<String>> entry : keyRoles.entrySet()) {
+			if (!entry.getValue().isEmpty()) {
+				assignedRoles.put(entry.getKey(),
+						internedRoles.computeIfAbsent(entry.getValue(), Collections::unmodifiableSet));
+			}
+		}
+		this.keyRoles = assignedRoles;
+	}
+
+	private Profile toProfile(final Collection<Cylinder> allowedCylinders) {
+		final BitSet bits = new BitSet(cylinderList.size());
+		for (final Cylinder cylinder : allowedCylinders) {
+			final Integer index = cylinderIndexes.get(cylinder);
+			if (index == null) {
+				throw new IllegalArgumentException(
+						String.format("Permission references unknown cylinder \"%s\".", cylinder.getId()));
+			}
+			bits.set(index);
+		}
+		return new Profile(bits);
 	}
 
 	public boolean allows(final Key key, final Cylinder cylinder) {
-		final Set<Cylinder> allowedCylinders = permissions.get(key);
-		return allowedCylinders != null && allowedCylinders.contains(cylinder);
+		return getProfile(key).allows(getCylinderIndex(cylinder).orElse(-1));
 	}
 
 	public Optional<Cylinder> get(final Cylinder cylinder) {
@@ -46,6 +142,28 @@ public class KeyCylinderPermissions {
 		return Optional.ofNullable(keys.get(key));
 	}
 
+	/**
+	 * Index of {@code cylinder} in {@link #getCylinders()}, used by {@link Profile}
+	 *
+	 * @param cylinder the cylinder
+	 * @return the index or empty if the cylinder is unknown
+	 */
+	public OptionalInt getCylinderIndex(final Cylinder cylinder) {
+		final Integer index = cylinderIndexes.get(cylinder);
+		return index == null ? OptionalInt.empty() : OptionalInt.of(index);
+	}
+
+	/**
+	 * Roles assigned to {@code key}. Keys with identical roles share the same
+	 * instance.
+	 *
+	 * @param key the key
+	 * @return names of the assigned roles
+	 */
+	public Set<String> getKeyRoles(final Key key) {
+		return Nullables.orElseGet(keyRoles.get(key), Collections::emptySet);
+	}
+
 	public Set<Key> getKeys() {
 		return keys.keySet();
 	}
@@ -54,6 +172,37 @@ public class KeyCylinderPermissions {
 		return cylinders.keySet();
 	}
 
+	/**
+	 * Hierarchical fingerprints of these permissions, computed on first access
+	 *
+	 * @return the fingerprints
+	 */
+	public Fingerprints getFingerprints() {
+		return fingerprints.get();
+	}
+
+	public Set<Cylinder> getPermissions(final Key key) {
+		final Profile profile = getProfile(key);
+		if (profile.size() == 0) {
+			return Collections.emptySet();
+		}
+
+		final Set<Cylinder> allowedCylinders
+				= profile.stream().mapToObj(cylinderList::get).collect(toCollection(LinkedHashSet::new));
+		return Collections.unmodifiableSet(allowedCylinders);
+	}
+
+	/**
+	 * Permission profile of {@code key}. Keys with identical permissions share the
+	 * same instance.
+	 *
+	 * @param key the key
+	 * @return the profile, which is empty for unknown keys
+	 */
+	public Profile getProfile(final Key key) {
+		return profiles.getOrDefault(key, EMPTY_PROFILE);
+	}
+
 	public boolean isIgnore(final Cylinder cylinder) {
 		return get(cylinder).map(Cylinder::isIgnore).orElse(Boolean.FALSE);
 	}
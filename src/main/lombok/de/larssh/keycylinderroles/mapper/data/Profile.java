@@ -0,0 +1,63 @@
+package de.larssh.keycylinderroles.mapper.data;
+
+import java.util.BitSet;
+import java.util.stream.IntStream;
+
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Permission profile, the set of cylinders a key is allowed to open.
+ *
+ * <p>
+ * Cylinders are stored as bitset using the index of
+ * {@link KeyCylinderPermissions#getCylinders()}. Identical profiles of one
+ * {@link KeyCylinderPermissions} are stored once, therefore keys with the same
+ * permissions share the same instance.
+ */
+@ToString
+@EqualsAndHashCode
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+public class Profile {
+	BitSet bits;
+
+	/**
+	 * Determines if the cylinder at {@code cylinderIndex} is part of this profile.
+	 *
+	 * @param cylinderIndex index of the cylinder
+	 * @return {@code true} if the cylinder is allowed
+	 */
+	public boolean allows(final int cylinderIndex) {
+		return cylinderIndex >= 0 && bits.get(cylinderIndex);
+	}
+
+	/**
+	 * Number of allowed cylinders
+	 *
+	 * @return the number of allowed cylinders
+	 */
+	public int size() {
+		return bits.cardinality();
+	}
+
+	/**
+	 * Indexes of the allowed cylinders in ascending order
+	 *
+	 * @return stream of indexes of {@link KeyCylinderPermissions#getCylinders()}
+	 */
+	public IntStream stream() {
+		return bits.stream();
+	}
+
+	/**
+	 * Copies the allowed cylinders to a new bitset.
+	 *
+	 * @return a new bitset using the index of
+	 *         {@link KeyCylinderPermissions#getCylinders()}
+	 */
+	public BitSet toBitSet() {
+		return (BitSet) bits.clone();
+	}
+}
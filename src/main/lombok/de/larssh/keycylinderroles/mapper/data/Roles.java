@@ -0,0 +1,284 @@
+package de.larssh.keycylinderroles.mapper.data;
+
+import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.unmodifiableMap;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import de.larssh.utils.Nullables;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Catalogue of roles, each role granting permissions to cylinders directly or
+ * by including other roles.
+ *
+ * <p>
+ * The transitive closure of all roles is computed once while constructing.
+ * Cylinders of a role are stored as bitset, using the index of
+ * {@link #getCylinders()}.
+ */
+@ToString
+public final class Roles {
+	/**
+	 * Cylinders in order of their bit index
+	 */
+	@Getter
+	List<Cylinder> cylinders;
+
+	Map<Cylinder, Integer> cylinderIndexes;
+
+	Map<String, Set<Cylinder>> directCylinders;
+
+	Map<String, Set<String>> includedRoles;
+
+	Map<String, BitSet> closures;
+
+	/**
+	 * Constructs a new role catalogue and computes the transitive closure of all
+	 * roles.
+	 *
+	 * @param cylinders       all cylinders
+	 * @param directCylinders cylinders granted by a role directly
+	 * @param includedRoles   roles included by a role
+	 * @throws IllegalArgumentException if roles include each other cyclically or
+	 *                                  include unknown roles
+	 */
+	public Roles(final Collection<Cylinder> cylinders,
+			final Map<String, Set<Cylinder>> directCylinders,
+			final Map<String, Set<String>> includedRoles) {
+		this.cylinders = unmodifiableList(new ArrayList<>(cylinders));
+		this.directCylinders = unmodifiableMap(new HashMap<>(directCylinders));
+		this.includedRoles = unmodifiableMap(new HashMap<>(includedRoles));
+
+		final Map<Cylinder, Integer> indexes = new HashMap<>(this.cylinders.size());
+		for (final Cylinder cylinder : this.cylinders) {
+			indexes.put(cylinder, indexes.size());
+		}
+		cylinderIndexes = unmodifiableMap(indexes);
+
+		final Map<String, BitSet> memo = new HashMap<>();
+		for (final String role : getNames()) {
+			computeClosures(role, memo);
+		}
+		closures = unmodifiableMap(memo);
+	}
+
+	/**
+	 * Computes the closures of {@code root} and of all roles included by it, unless
+	 * already part of {@code memo}.
+	 *
+	 * <p>
+	 * Included roles are traversed depth-first using an explicit stack, so that
+	 * long chains of included roles cannot exhaust the call stack. The roles on the
+	 * path from {@code root} to the current role are kept as set to detect cycles.
+	 *
+	 * @param root the role to start at
+	 * @param memo the closures computed so far, extended by this method
+	 * @throws IllegalArgumentException if roles include each other cyclically or
+	 *                                  include unknown roles
+	 */
+	private void computeClosures(final String root, final Map<String, BitSet> memo) {
+		final Deque<String> stack = new ArrayDeque<>();
+		final Set<String> path = new LinkedHashSet<>();
+		stack.push(root);
+		while (!stack.isEmpty()) {
+			final String role = stack.peek();
+			if (memo.containsKey(role)) {
+				stack.pop();
+			} else if (path.add(role)) {
+				for (final String includedRole : getIncludedRoles(role)) {
+					checkIncludedRole(role, includedRole, path);
+					stack.push(includedRole);
+				}
+			} else {
+				stack.pop();
+				path.remove(role);
+				memo.put(role, computeClosure(role, memo));
+			}
+		}
+	}
+
+	/**
+	 * Validates that {@code role} may include {@code includedRole}.
+	 *
+	 * @param role         the including role
+	 * @param includedRole the included role
+	 * @param path         the roles on the path to {@code role}, in order
+	 * @throws IllegalArgumentException if {@code includedRole} is unknown or on
+	 *                                  {@code path} already
+	 */
+	private void checkIncludedRole(final String role, final String includedRole, final Set<String> path) {
+		if (!directCylinders.containsKey(includedRole) && !includedRoles.containsKey(includedRole)) {
+			throw new IllegalArgumentException(
+					String.format("Role \"%s\" includes unknown role \"%s\".", role, includedRole));
+		}
+		if (path.contains(includedRole)) {
+			final List<String> cycle = new ArrayList<>(path);
+			cycle.subList(0, cycle.indexOf(includedRole)).clear();
+			cycle.add(includedRole);
+			throw new IllegalArgumentException(
+					String.format("Roles include each other cyclically: %s", String.join(" -> ", cycle)));
+		}
+	}
+
+	/**
+	 * Computes the closure of {@code role}, given that the closures of all of its
+	 * included roles are part of {@code memo} already.
+	 *
+	 * @param role the role
+	 * @param memo the closures computed so far
+	 * @return the closure of {@code role}
+	 * @throws IllegalArgumentException if {@code role} references unknown cylinders
+	 */
+	private BitSet computeClosure(final String role, final Map<String, BitSet> memo) {
+		final BitSet closure = new BitSet(cylinders.size());
+		for (final Cylinder cylinder : getDirectCylinders(role)) {
+			final Integer index = cylinderIndexes.get(cylinder);
+			if (index == null) {
+				throw new IllegalArgumentException(
+						String.format("Role \"%s\" references unknown cylinder \"%s\".", role, cylinder.getId()));
+			}
+			closure.set(index);
+		}
+		for (final String includedRole : getIncludedRoles(role)) {
+			closure.or(Nullables.orElseThrow(memo.get(includedRole)));
+		}
+		return closure;
+	}
+
+	/**
+	 * Bitset of all cylinders granted by {@code roles}, including those of included
+	 * roles. Unknown roles grant no cylinders.
+	 *
+	 * @param roles role names
+	 * @return a new bitset using the index of {@link #getCylinders()}
+	 */
+	public BitSet getCylinderBits(final Collection<String> roles) {
+		final BitSet bits = new BitSet(cylinders.size());
+		for (final String role : roles) {
+			final BitSet closure = closures.get(role);
+			if (closure != null) {
+				bits.or(closure);
+			}
+		}
+		return bits;
+	}
+
+	/**
+	 * Bitset of all cylinders granted by {@code role}, including those of included
+	 * roles. Unknown roles grant no cylinders.
+	 *
+	 * @param role role name
+	 * @return a new bitset using the index of {@link #getCylinders()}
+	 */
+	public BitSet getCylinderBits(final String role) {
+		final BitSet closure = closures.get(role);
+		return closure == null ? new BitSet() : (BitSet) closure.clone();
+	}
+
+	/**
+	 * Roles out of {@code roles}, which grant {@code cylinder} directly or by
+	 * including other roles. The precomputed closures are looked up only, so that
+	 * attribution is cheap enough to be done on demand.
+	 *
+	 * @param roles    role names
+	 * @param cylinder the cylinder
+	 * @return sorted names of the granting roles
+	 */
+	public SortedSet<String> getGrantingRoles(final Collection<String> roles, final Cylinder cylinder) {
+		final Integer index = cylinderIndexes.get(cylinder);
+		if (index == null) {
+			return Collections.emptySortedSet();
+		}
+
+		final SortedSet<String> grantingRoles = new TreeSet<>();
+		for (final String role : roles) {
+			final BitSet closure = closures.get(role);
+			if (closure != null && closure.get(index)) {
+				grantingRoles.add(role);
+			}
+		}
+		return Collections.unmodifiableSortedSet(grantingRoles);
+	}
+
+	/**
+	 * Cylinders granted by {@code role} directly, excluding those of included roles
+	 *
+	 * @param role role name
+	 * @return cylinders granted directly
+	 */
+	public Set<Cylinder> getDirectCylinders(final String role) {
+		return Collections
+				.unmodifiableSet(Nullables.orElseGet(directCylinders.get(role), Collections::<Cylinder>emptySet));
+	}
+
+	/**
+	 * Roles included by {@code role} directly
+	 *
+	 * @param role role name
+	 * @return names of included roles
+	 */
+	public Set<String> getIncludedRoles(final String role) {
+		return Collections.unmodifiableSet(Nullables.orElseGet(includedRoles.get(role), Collections::<String>emptySet));
+	}
+
+	/**
+	 * Names of all roles, either granting cylinders or including other roles
+	 *
+	 * @return role names
+	 */
+	public Set<String> getNames() {
+		final Set<String> names = new LinkedHashSet<>(directCylinders.keySet());
+		names.addAll(includedRoles.keySet());
+		return names;
+	}
+
+	/**
+	 * Converts cylinders to a bitset using the index of {@link #getCylinders()}.
+	 * Unknown cylinders are skipped.
+	 *
+	 * @param cylinders cylinders
+	 * @return a new bitset using the index of {@link #getCylinders()}
+	 */
+	public BitSet toCylinderBits(final Collection<Cylinder> cylinders) {
+		final BitSet bits = new BitSet(this.cylinders.size());
+		for (final Cylinder cylinder : cylinders) {
+			final Integer index = cylinderIndexes.get(cylinder);
+			if (index != null) {
+				bits.set(index);
+			}
+		}
+		return bits;
+	}
+
+	/**
+	 * Converts a bitset using the index of {@link #getCylinders()} to cylinders.
+	 *
+	 * @param bits cylinder bits
+	 * @return set of cylinders in order of {@link #getCylinders()}
+	 */
+	public Set<Cylinder> toCylinders(final BitSet bits) {
+		if (bits.isEmpty()) {
+			return Collections.emptySet();
+		}
+
+		final Set<Cylinder> result = new LinkedHashSet<>(bits.cardinality());
+		for (int index = bits.nextSetBit(0); index >= 0; index = bits.nextSetBit(index + 1)) {
+			result.add(cylinders.get(index));
+		}
+		return result;
+	}
+}
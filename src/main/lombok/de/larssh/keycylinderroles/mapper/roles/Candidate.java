@@ -0,0 +1,71 @@
+package de.larssh.keycylinderroles.mapper.roles;
+
+import java.util.BitSet;
+import java.util.List;
+
+import de.larssh.keycylinderroles.mapper.utils.BitSets;
+import de.larssh.utils.annotations.PackagePrivate;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.NonFinal;
+
+/**
+ * Candidate role of {@link RoleMining}, granting a set of cylinders to all
+ * profiles containing them
+ *
+ * <p>
+ * Candidates are ordered by their gain, starting with the largest gain.
+ */
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+final class Candidate implements Comparable<Candidate> {
+	@EqualsAndHashCode.Include
+	int index;
+
+	@Getter
+	BitSet cylinders;
+
+	BitSet supersets;
+
+	@Getter
+	@NonFinal
+	int gain = Integer.MAX_VALUE;
+
+	@Override
+	public int compareTo(final Candidate other) {
+		if (gain != other.gain) {
+			return Integer.compare(other.gain, gain);
+		}
+		return Integer.compare(index, other.index);
+	}
+
+	/**
+	 * Re-evaluates the number of permissions newly covered by this candidate.
+	 *
+	 * @param uncovered the uncovered permissions per profile
+	 * @return the updated gain
+	 */
+	@PackagePrivate
+	int updateGain(final List<BitSet> uncovered) {
+		int sum = 0;
+		for (int profile = supersets.nextSetBit(0); profile >= 0; profile = supersets.nextSetBit(profile + 1)) {
+			sum += BitSets.intersectionCardinality(cylinders, uncovered.get(profile));
+		}
+		gain = sum;
+		return sum;
+	}
+
+	/**
+	 * Marks the permissions granted by this candidate as covered.
+	 *
+	 * @param uncovered the uncovered permissions per profile
+	 */
+	@PackagePrivate
+	void cover(final List<BitSet> uncovered) {
+		for (int profile = supersets.nextSetBit(0); profile >= 0; profile = supersets.nextSetBit(profile + 1)) {
+			uncovered.get(profile).andNot(cylinders);
+		}
+	}
+}
@@ -0,0 +1,30 @@
+package de.larssh.keycylinderroles.mapper.roles;
+
+import java.util.Map;
+import java.util.Set;
+
+import de.larssh.keycylinderroles.mapper.data.Key;
+import de.larssh.keycylinderroles.mapper.data.Roles;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Result of {@link RoleMining}, a set of roles and the assignments of keys to
+ * those roles
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class MinedRoles {
+	/**
+	 * The mined roles
+	 */
+	Roles roles;
+
+	/**
+	 * Role names by key in order of the mined permissions. Keys without any
+	 * permission are assigned no role.
+	 */
+	Map<Key, Set<String>> keyRoles;
+}
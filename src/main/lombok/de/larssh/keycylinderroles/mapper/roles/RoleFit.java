@@ -0,0 +1,41 @@
+package de.larssh.keycylinderroles.mapper.roles;
+
+import java.util.Set;
+
+import de.larssh.keycylinderroles.mapper.data.Cylinder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Result of {@link RoleFitting}, the best combination of existing roles for a
+ * set of cylinders and the remaining difference
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class RoleFit {
+	/**
+	 * Names of the roles fitting best
+	 */
+	Set<String> roles;
+
+	/**
+	 * Cylinders not granted by {@link #getRoles()}
+	 */
+	Set<Cylinder> missing;
+
+	/**
+	 * Cylinders granted by {@link #getRoles()} additionally
+	 */
+	Set<Cylinder> extra;
+
+	/**
+	 * Determines if {@link #getRoles()} grant exactly the fitted cylinders.
+	 *
+	 * @return {@code true} if there is no remaining difference
+	 */
+	public boolean isExact() {
+		return missing.isEmpty() && extra.isEmpty();
+	}
+}
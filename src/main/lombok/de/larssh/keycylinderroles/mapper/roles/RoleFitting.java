@@ -0,0 +1,143 @@
+package de.larssh.keycylinderroles.mapper.roles;
+
+import static de.larssh.utils.Collectors.toLinkedHashMap;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+import de.larssh.keycylinderroles.mapper.data.Cylinder;
+import de.larssh.keycylinderroles.mapper.data.Roles;
+import de.larssh.keycylinderroles.mapper.utils.BitSets;
+import de.larssh.utils.annotations.PackagePrivate;
+import de.larssh.utils.collection.Maps;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Fitting existing roles to sets of cylinders.
+ *
+ * <p>
+ * The bitsets of all roles are computed once per catalogue. Roles are chosen
+ * greedily per set of cylinders by the number of newly covered cylinders minus
+ * the number of newly granted extra cylinders, until no role improves the
+ * combination any longer.
+ */
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class RoleFitting {
+	/**
+	 * Creates a fitting based on the roles of {@code catalogue}.
+	 *
+	 * @param catalogue the existing roles
+	 * @return the fitting
+	 */
+	public static RoleFitting forCatalogue(final Roles catalogue) {
+		final Set<String> names = new TreeSet<>(catalogue.getNames());
+		final List<CandidateRole> candidates = new ArrayList<>(names.size());
+		for (final String name : names) {
+			final BitSet cylinders = catalogue.getCylinderBits(name);
+			if (!cylinders.isEmpty()) {
+				candidates.add(new CandidateRole(name, cylinders, cylinders.cardinality()));
+			}
+		}
+		return new RoleFitting(catalogue, new HashSet<>(catalogue.getCylinders()), candidates);
+	}
+
+	Roles catalogue;
+
+	Set<Cylinder> knownCylinders;
+
+	List<CandidateRole> candidates;
+
+	/**
+	 * Fits roles to the sets of cylinders in {@code targets}. Targets are fitted in
+	 * parallel.
+	 *
+	 * @param <T>     type of the target identifiers, usually keys
+	 * @param targets sets of cylinders to fit roles to
+	 * @return the role fits in order of {@code targets}
+	 */
+	public <T> Map<T, RoleFit> fit(final Map<T, ? extends Collection<Cylinder>> targets) {
+		return targets.entrySet()
+				.parallelStream()
+				.map(entry -> Maps.entry(entry.getKey(), fit(entry.getValue())))
+				.collect(toLinkedHashMap(Map.Entry::getKey, Map.Entry::getValue));
+	}
+
+	/**
+	 * Fits roles to the set of cylinders {@code target}. Cylinders unknown to the
+	 * catalogue cannot be granted by any role and remain missing.
+	 *
+	 * @param target cylinders to fit roles to
+	 * @return the role fit
+	 */
+	@SuppressFBWarnings(value = "OPM_OVERLY_PERMISSIVE_METHOD", justification = "API method")
+	public RoleFit fit(final Collection<Cylinder> target) {
+		final BitSet targetBits = catalogue.toCylinderBits(target);
+		final BitSet uncovered = (BitSet) targetBits.clone();
+		final BitSet extra = new BitSet();
+		final Set<String> roles = new LinkedHashSet<>(targetBits.cardinality());
+
+		Optional<CandidateRole> best = findBest(targetBits, uncovered, extra);
+		while (best.isPresent()) {
+			final CandidateRole role = best.get();
+			roles.add(role.getName());
+			uncovered.andNot(role.getCylinders());
+			extra.or(role.getCylinders());
+			extra.andNot(targetBits);
+			best = findBest(targetBits, uncovered, extra);
+		}
+
+		final Set<Cylinder> missing = new LinkedHashSet<>(catalogue.toCylinders(uncovered));
+		for (final Cylinder cylinder : target) {
+			if (!knownCylinders.contains(cylinder)) {
+				missing.add(cylinder);
+			}
+		}
+		return new RoleFit(roles, missing, catalogue.toCylinders(extra));
+	}
+
+	private Optional<CandidateRole> findBest(final BitSet target, final BitSet uncovered, final BitSet extra) {
+		Optional<CandidateRole> best = Optional.empty();
+		int bestGain = 0;
+		for (final CandidateRole candidate : candidates) {
+			final int gain = candidate.computeGain(target, uncovered, extra);
+			if (gain > bestGain) {
+				best = Optional.of(candidate);
+				bestGain = gain;
+			}
+		}
+		return best;
+	}
+
+	@Getter
+	@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+	private static final class CandidateRole {
+		String name;
+
+		BitSet cylinders;
+
+		int cardinality;
+
+		@PackagePrivate
+		int computeGain(final BitSet target, final BitSet uncovered, final BitSet extra) {
+			final int covered = BitSets.intersectionCardinality(cylinders, uncovered);
+			if (covered == 0) {
+				return 0;
+			}
+			final int newExtra = cardinality
+					- BitSets.intersectionCardinality(cylinders, target)
+					- BitSets.intersectionCardinality(cylinders, extra);
+			return covered - newExtra;
+		}
+	}
+}
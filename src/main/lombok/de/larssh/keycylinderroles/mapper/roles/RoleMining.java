@@ -0,0 +1,220 @@
+package de.larssh.keycylinderroles.mapper.roles;
+
+import static java.util.Collections.unmodifiableMap;
+import static java.util.stream.Collectors.toCollection;
+import static java.util.stream.Collectors.toList;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import de.larssh.keycylinderroles.mapper.data.Cylinder;
+import de.larssh.keycylinderroles.mapper.data.Key;
+import de.larssh.keycylinderroles.mapper.data.KeyCylinderPermissions;
+import de.larssh.keycylinderroles.mapper.data.Profile;
+import de.larssh.keycylinderroles.mapper.data.Roles;
+import de.larssh.keycylinderroles.mapper.utils.BitSets;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Deriving a small set of roles, which reproduces given permissions exactly.
+ *
+ * <p>
+ * Keys with identical permissions share one profile. Candidate roles are all
+ * distinct profiles, the cylinders shared by all profiles containing a cylinder
+ * and the intersections of sampled pairs of profiles. Candidates are chosen
+ * greedily by the number of permissions they newly cover, restricted to
+ * profiles containing all of their cylinders. Therefore the union of the roles
+ * of a key always equals its permissions.
+ */
+@UtilityClass
+public class RoleMining {
+	private static final String ROLE_NAME_FORMAT = "Rolle %d";
+
+	/**
+	 * Derives roles reproducing {@code permissions} exactly.
+	 *
+	 * @param permissions the permissions to reproduce
+	 * @return the mined roles and key assignments
+	 */
+	public static MinedRoles mine(final KeyCylinderPermissions permissions) {
+		final List<Cylinder> cylinders = new ArrayList<>(permissions.getCylinders());
+		final Map<Profile, List<Key>> keysByProfile = getKeysByProfile(permissions);
+		final List<BitSet> profiles = keysByProfile.keySet().stream().map(Profile::toBitSet).collect(toList());
+
+		final List<BitSet> selected = RoleSelection.select(profiles, cylinders.size());
+		final List<List<Integer>> profileRoles = assignRoles(profiles, selected);
+		final Map<Integer, String> roleNames = getRoleNames(profileRoles);
+
+		final Map<String, Set<Cylinder>> roleCylinders = new LinkedHashMap<>(roleNames.size());
+		for (final Entry<Integer, String> roleName : roleNames.entrySet()) {
+			roleCylinders.put(roleName.getValue(), toCylinders(cylinders, selected.get(roleName.getKey())));
+		}
+
+		final Map<Key, Set<String>> keyRoles = new LinkedHashMap<>(permissions.getKeys().size());
+		final Iterator<List<Integer>> rolesOfProfiles = profileRoles.iterator();
+		for (final List<Key> keys : keysByProfile.values()) {
+			final Set<String> names
+					= rolesOfProfiles.next().stream().map(roleNames::get).collect(toCollection(LinkedHashSet::new));
+			for (final Key key : keys) {
+				keyRoles.put(key, names);
+			}
+		}
+
+		return new MinedRoles(new Roles(cylinders, roleCylinders, Collections.emptyMap()), unmodifiableMap(keyRoles));
+	}
+
+	/**
+	 * Groups the keys of {@code permissions} by their profiles, deduplicating
+	 * identical rows. Keys without permissions are skipped.
+	 *
+	 * @param permissions the permissions
+	 * @return keys by profile in order of their first key
+	 */
+	@SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+	private static Map<Profile, List<Key>> getKeysByProfile(final KeyCylinderPermissions permissions) {
+		final Map<Profile, List<Key>> keysByProfile = new LinkedHashMap<>(permissions.getNumberOfProfiles());
+		for (final Key key : permissions.getKeys()) {
+			final Profile profile = permissions.getProfile(key);
+			if (profile.size() > 0) {
+				keysByProfile.computeIfAbsent(profile, p -> new ArrayList<>()).add(key);
+			}
+		}
+		return keysByProfile;
+	}
+
+	/**
+	 * Names the roles in order of their first usage.
+	 *
+	 * @param profileRoles indexes of the selected roles per profile
+	 * @return role names by index of the selected role
+	 */
+	private static Map<Integer, String> getRoleNames(final Iterable<List<Integer>> profileRoles) {
+		final Map<Integer, String> roleNames = new LinkedHashMap<>();
+		for (final List<Integer> roleIndexes : profileRoles) {
+			for (final Integer roleIndex : roleIndexes) {
+				roleNames.computeIfAbsent(roleIndex, r -> String.format(ROLE_NAME_FORMAT, roleNames.size() + 1));
+			}
+		}
+		return roleNames;
+	}
+
+	/**
+	 * Converts a bitset using the index of {@code cylinders} to cylinders.
+	 *
+	 * @param cylinders all cylinders
+	 * @param bits      cylinder bits
+	 * @return set of cylinders in order of {@code cylinders}
+	 */
+	private static Set<Cylinder> toCylinders(final List<Cylinder> cylinders, final BitSet bits) {
+		final Set<Cylinder> result = new LinkedHashSet<>(bits.cardinality());
+		for (int index = bits.nextSetBit(0); index >= 0; index = bits.nextSetBit(index + 1)) {
+			result.add(cylinders.get(index));
+		}
+		return result;
+	}
+
+	/**
+	 * Assigns the selected roles to profiles, skipping roles, which are covered by
+	 * other roles of the same profile.
+	 *
+	 * @param profiles the distinct profiles
+	 * @param selected the selected roles
+	 * @return indexes of the selected roles per profile
+	 */
+	private static List<List<Integer>> assignRoles(final Collection<BitSet> profiles, final List<BitSet> selected) {
+		final List<List<Integer>> profileRoles = new ArrayList<>(profiles.size());
+		for (final BitSet profile : profiles) {
+			final List<Integer> roles = getSubsets(selected, profile);
+			removeRedundantRoles(roles, selected, profile);
+			profileRoles.add(roles);
+		}
+		return profileRoles;
+	}
+
+	/**
+	 * Determines the selected roles, which are subsets of {@code profile}.
+	 *
+	 * @param selected the selected roles
+	 * @param profile  the profile
+	 * @return indexes of the selected roles contained in {@code profile}
+	 */
+	private static List<Integer> getSubsets(final List<BitSet> selected, final BitSet profile) {
+		final List<Integer> roles = new ArrayList<>();
+		for (int role = 0; role < selected.size(); role += 1) {
+			if (BitSets.isSubset(selected.get(role), profile)) {
+				roles.add(role);
+			}
+		}
+		return roles;
+	}
+
+	/**
+	 * Removes roles, which are covered by other roles of {@code roles}, starting
+	 * with the latest selected ones.
+	 *
+	 * <p>
+	 * The roles granting each cylinder of {@code profile} are counted, so that a
+	 * role is known to be redundant if all of its cylinders are granted at least
+	 * twice.
+	 *
+	 * @param roles    indexes of the selected roles of {@code profile}, modified by
+	 *                 this method
+	 * @param selected the selected roles
+	 * @param profile  the profile
+	 */
+	private static void removeRedundantRoles(final List<Integer> roles,
+			final List<BitSet> selected,
+			final BitSet profile) {
+		final int[] grants = new int[profile.length()];
+		for (final Integer role : roles) {
+			addGrants(grants, selected.get(role), 1);
+		}
+
+		for (int index = roles.size() - 1; index >= 0; index -= 1) {
+			final BitSet cylinders = selected.get(roles.get(index));
+			if (isGrantedTwice(grants, cylinders)) {
+				addGrants(grants, cylinders, -1);
+				roles.remove(index);
+			}
+		}
+	}
+
+	/**
+	 * Adds {@code delta} to the number of grants of each of {@code cylinders}.
+	 *
+	 * @param grants    number of grants per cylinder index
+	 * @param cylinders the cylinders of a role
+	 * @param delta     the number to add
+	 */
+	private static void addGrants(final int[] grants, final BitSet cylinders, final int delta) {
+		for (int cylinder = cylinders.nextSetBit(0); cylinder >= 0; cylinder = cylinders.nextSetBit(cylinder + 1)) {
+			grants[cylinder] += delta;
+		}
+	}
+
+	/**
+	 * Determines if all of {@code cylinders} are granted at least twice.
+	 *
+	 * @param grants    number of grants per cylinder index
+	 * @param cylinders the cylinders of a role
+	 * @return {@code true} if each of {@code cylinders} is granted by another role,
+	 *         too
+	 */
+	private static boolean isGrantedTwice(final int[] grants, final BitSet cylinders) {
+		for (int cylinder = cylinders.nextSetBit(0); cylinder >= 0; cylinder = cylinders.nextSetBit(cylinder + 1)) {
+			if (grants[cylinder] < 2) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,183 @@
+package de.larssh.keycylinderroles.mapper.roles;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Selecting roles for {@link RoleMining} out of candidates derived from
+ * distinct profiles
+ */
+@UtilityClass
+class RoleSelection {
+	/**
+	 * Maximum number of other profiles each profile is intersected with
+	 */
+	private static final int MAX_PARTNERS = 16;
+
+	/**
+	 * Chooses roles greedily, until all profiles are covered. Gains of candidates
+	 * decrease only, therefore they are re-evaluated lazily.
+	 *
+	 * @param profiles          the distinct profiles
+	 * @param numberOfCylinders the number of cylinders
+	 * @return the selected roles
+	 */
+	public static List<BitSet> select(final List<BitSet> profiles, final int numberOfCylinders) {
+		final List<Candidate> candidates = createCandidates(profiles, numberOfCylinders);
+		final List<BitSet> uncovered = new ArrayList<>(profiles.size());
+		for (final BitSet profile : profiles) {
+			uncovered.add((BitSet) profile.clone());
+		}
+
+		final Queue<Candidate> queue = new PriorityQueue<>(candidates);
+		final List<BitSet> selected = new ArrayList<>();
+		while (!queue.isEmpty()) {
+			final Candidate candidate = queue.poll();
+			final int gain = candidate.updateGain(uncovered);
+			final Candidate next = queue.peek();
+			if (gain > 0) {
+				if (next == null || gain >= next.getGain()) {
+					selected.add(candidate.getCylinders());
+					candidate.cover(uncovered);
+				} else {
+					queue.add(candidate);
+				}
+			}
+		}
+		return selected;
+	}
+
+	/**
+	 * Creates candidate roles out of
+	 * <ul>
+	 * <li>all distinct profiles,
+	 * <li>the cylinders shared by all profiles containing a cylinder, one candidate
+	 * per cylinder,
+	 * <li>and the intersections of each profile with up to {@link #MAX_PARTNERS}
+	 * profiles sharing cylinders with it.
+	 * </ul>
+	 *
+	 * <p>
+	 * The number of candidates grows linearly with the number of profiles and
+	 * cylinders. Intersecting all pairs of profiles would result in a quadratic
+	 * number of candidates instead.
+	 *
+	 * @param profiles          the distinct profiles
+	 * @param numberOfCylinders the number of cylinders
+	 * @return the candidate roles
+	 */
+	private static List<Candidate> createCandidates(final List<BitSet> profiles, final int numberOfCylinders) {
+		final List<BitSet> profilesByCylinder = getProfilesByCylinder(profiles, numberOfCylinders);
+
+		final Set<BitSet> candidateCylinders = new LinkedHashSet<>(profiles);
+		for (final BitSet containing : profilesByCylinder) {
+			if (!containing.isEmpty()) {
+				candidateCylinders.add(getIntersection(profiles, containing));
+			}
+		}
+		for (int profile = 0; profile < profiles.size(); profile += 1) {
+			for (final Integer partner : getPartners(profiles, profilesByCylinder, profile)) {
+				final BitSet intersection = (BitSet) profiles.get(profile).clone();
+				intersection.and(profiles.get(partner));
+				candidateCylinders.add(intersection);
+			}
+		}
+
+		final List<Candidate> candidates = new ArrayList<>(candidateCylinders.size());
+		for (final BitSet cylinders : candidateCylinders) {
+			candidates.add(new Candidate(candidates.size(), cylinders, getSupersets(cylinders, profilesByCylinder)));
+		}
+		return candidates;
+	}
+
+	/**
+	 * Indexes profiles by cylinder, so that profiles sharing cylinders and
+	 * supersets of candidates are found without scanning all profiles.
+	 *
+	 * @param profiles          the distinct profiles
+	 * @param numberOfCylinders the number of cylinders
+	 * @return indexes of profiles per cylinder index
+	 */
+	private static List<BitSet> getProfilesByCylinder(final List<BitSet> profiles, final int numberOfCylinders) {
+		final List<BitSet> profilesByCylinder = new ArrayList<>(numberOfCylinders);
+		for (int cylinder = 0; cylinder < numberOfCylinders; cylinder += 1) {
+			profilesByCylinder.add(new BitSet(profiles.size()));
+		}
+		for (int profile = 0; profile < profiles.size(); profile += 1) {
+			final BitSet cylinders = profiles.get(profile);
+			for (int cylinder = cylinders.nextSetBit(0); cylinder >= 0; cylinder = cylinders.nextSetBit(cylinder + 1)) {
+				profilesByCylinder.get(cylinder).set(profile);
+			}
+		}
+		return profilesByCylinder;
+	}
+
+	/**
+	 * Determines the cylinders shared by all of {@code indexes}.
+	 *
+	 * @param profiles the distinct profiles
+	 * @param indexes  indexes of at least one profile
+	 * @return the intersection of the profiles
+	 */
+	private static BitSet getIntersection(final List<BitSet> profiles, final BitSet indexes) {
+		final BitSet intersection = (BitSet) profiles.get(indexes.nextSetBit(0)).clone();
+		for (int profile = indexes.nextSetBit(0); profile >= 0; profile = indexes.nextSetBit(profile + 1)) {
+			intersection.and(profiles.get(profile));
+		}
+		return intersection;
+	}
+
+	/**
+	 * Samples up to {@link #MAX_PARTNERS} profiles sharing at least one cylinder
+	 * with {@code profile}. Partners are spread evenly over all of those profiles.
+	 *
+	 * @param profiles           the distinct profiles
+	 * @param profilesByCylinder indexes of profiles per cylinder index
+	 * @param profile            the index of the profile to find partners for
+	 * @return indexes of the partner profiles
+	 */
+	private static List<Integer> getPartners(final List<BitSet> profiles,
+			final List<BitSet> profilesByCylinder,
+			final int profile) {
+		final BitSet cylinders = profiles.get(profile);
+		final BitSet sharing = new BitSet(profiles.size());
+		for (int cylinder = cylinders.nextSetBit(0); cylinder >= 0; cylinder = cylinders.nextSetBit(cylinder + 1)) {
+			sharing.or(profilesByCylinder.get(cylinder));
+		}
+		sharing.clear(profile);
+
+		final int numberOfSharing = sharing.cardinality();
+		final int step = Math.max(1, (numberOfSharing + MAX_PARTNERS - 1) / MAX_PARTNERS);
+		final List<Integer> partners = new ArrayList<>(Math.min(MAX_PARTNERS, numberOfSharing));
+		int position = 0;
+		for (int partner = sharing.nextSetBit(0); partner >= 0; partner = sharing.nextSetBit(partner + 1)) {
+			if (position % step == 0) {
+				partners.add(partner);
+			}
+			position += 1;
+		}
+		return partners;
+	}
+
+	/**
+	 * Determines the profiles containing all of {@code cylinders}.
+	 *
+	 * @param cylinders          the cylinders of a candidate
+	 * @param profilesByCylinder indexes of profiles per cylinder index
+	 * @return indexes of the profiles containing all of {@code cylinders}
+	 */
+	private static BitSet getSupersets(final BitSet cylinders, final List<BitSet> profilesByCylinder) {
+		final BitSet supersets = (BitSet) profilesByCylinder.get(cylinders.nextSetBit(0)).clone();
+		for (int cylinder = cylinders.nextSetBit(0); cylinder >= 0; cylinder = cylinders.nextSetBit(cylinder + 1)) {
+			supersets.and(profilesByCylinder.get(cylinder));
+		}
+		return supersets;
+	}
+}
@@ -0,0 +1,5 @@
+/**
+ * Deriving and fitting roles based on key-cylinder permissions
+ */
+@de.larssh.utils.annotations.NonNullByDefault
+package de.larssh.keycylinderroles.mapper.roles;
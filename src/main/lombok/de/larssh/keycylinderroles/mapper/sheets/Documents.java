@@ -0,0 +1,175 @@
+package de.larssh.keycylinderroles.mapper.sheets;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+import org.apache.poi.EmptyFileException;
+import org.apache.poi.poifs.filesystem.FileMagic;
+
+import de.larssh.keycylinderroles.mapper.data.KeyCylinderPermissions;
+import de.larssh.keycylinderroles.mapper.sheets.csv.CsvFiles;
+import de.larssh.keycylinderroles.mapper.sheets.excel.ExcelFiles;
+import de.larssh.keycylinderroles.mapper.utils.ByteBuffers;
+import de.larssh.utils.annotations.PackagePrivate;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Reading documents of any supported type, either CSV or Excel
+ */
+@UtilityClass
+public class Documents {
+	/**
+	 * Reads the document at {@code path}. The file is opened once only.
+	 *
+	 * @param path the document path
+	 * @return the permissions
+	 * @throws IOException on IO error
+	 */
+	public static KeyCylinderPermissions read(final Path path) throws IOException {
+		return read(path, ReadOptions.DEFAULT);
+	}
+
+	/**
+	 * Reads the document at {@code path}. The file is opened once only.
+	 *
+	 * <p>
+	 * CSV files are mapped into memory if they are non-empty regular files. Excel
+	 * documents, pipes and devices, such as the standard input, are streamed. POI
+	 * copies Excel documents while unpacking them, so mapping would not save
+	 * anything.
+	 *
+	 * @param path    the document path
+	 * @param options the read options
+	 * @return the permissions
+	 * @throws IOException on IO error
+	 */
+	public static KeyCylinderPermissions read(final Path path, final ReadOptions options) throws IOException {
+		if (Files.exists(path) && !Files.isRegularFile(path)) {
+			try (InputStream inputStream = new PipeInputStream(Files.newInputStream(path))) {
+				return read(inputStream, options);
+			}
+		}
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+				InputStream inputStream = FileMagic.prepareToCheckMagic(Channels.newInputStream(channel))) {
+			if (isExcel(inputStream)) {
+				return ExcelFiles.read(inputStream, options);
+			}
+
+			// Mapping does not depend on the position of the channel
+			final Optional<ByteBuffer> buffer = ByteBuffers.map(channel);
+			return buffer.isPresent() ? CsvFiles.read(buffer.get(), options) : CsvFiles.read(inputStream, options);
+		}
+	}
+
+	/**
+	 * Reads a document from {@code buffer}, starting at its current position. The
+	 * position of {@code buffer} is not modified.
+	 *
+	 * @param buffer the document content
+	 * @return the permissions
+	 * @throws IOException on IO error
+	 */
+	public static KeyCylinderPermissions read(final ByteBuffer buffer) throws IOException {
+		return read(buffer, ReadOptions.DEFAULT);
+	}
+
+	/**
+	 * Reads a document from {@code buffer}, starting at its current position. The
+	 * position of {@code buffer} is not modified.
+	 *
+	 * @param buffer  the document content
+	 * @param options the read options
+	 * @return the permissions
+	 * @throws IOException on IO error
+	 */
+	@SuppressFBWarnings(value = "OPM_OVERLY_PERMISSIVE_METHOD", justification = "API method")
+	public static KeyCylinderPermissions read(final ByteBuffer buffer, final ReadOptions options) throws IOException {
+		return isExcel(FileMagic.prepareToCheckMagic(ByteBuffers.newInputStream(buffer)))
+				? ExcelFiles.read(buffer, options)
+				: CsvFiles.read(buffer, options);
+	}
+
+	/**
+	 * Reads a document from {@code inputStream}. Its type is determined by the
+	 * magic bytes of a buffered prefix, therefore the input is read exactly once.
+	 *
+	 * <p>
+	 * {@code inputStream} is not closed by this method.
+	 *
+	 * @param inputStream the document content
+	 * @return the permissions
+	 * @throws IOException on IO error
+	 */
+	public static KeyCylinderPermissions read(final InputStream inputStream) throws IOException {
+		return read(inputStream, ReadOptions.DEFAULT);
+	}
+
+	/**
+	 * Reads a document from {@code inputStream}. Its type is determined by the
+	 * magic bytes of a buffered prefix, therefore the input is read exactly once.
+	 *
+	 * <p>
+	 * {@code inputStream} is not closed by this method.
+	 *
+	 * @param inputStream the document content
+	 * @param options     the read options
+	 * @return the permissions
+	 * @throws IOException on IO error
+	 */
+	@SuppressWarnings({ "checkstyle:SuppressWarnings", "resource" })
+	public static KeyCylinderPermissions read(final InputStream inputStream, final ReadOptions options)
+			throws IOException {
+		final InputStream markableInputStream = FileMagic.prepareToCheckMagic(inputStream);
+		return isExcel(markableInputStream)
+				? ExcelFiles.read(markableInputStream, options)
+				: CsvFiles.read(markableInputStream, options);
+	}
+
+	/**
+	 * Determines if {@code markableInputStream} starts with the magic bytes of an
+	 * Excel document. Empty input is read as CSV file without any rows.
+	 *
+	 * @param markableInputStream an input stream supporting mark and reset
+	 * @return {@code true} if {@code markableInputStream} contains an Excel
+	 *         document
+	 * @throws IOException on IO error
+	 */
+	private static boolean isExcel(final InputStream markableInputStream) throws IOException {
+		try {
+			return FileMagic.valueOf(markableInputStream) != FileMagic.UNKNOWN;
+		} catch (final EmptyFileException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Input stream of a pipe or device, which does not know the number of bytes
+	 * available without blocking
+	 *
+	 * <p>
+	 * Streams of file channels determine the number of available bytes based on the
+	 * size and position of their channel, which fails for pipes with "Illegal
+	 * seek".
+	 */
+	private static final class PipeInputStream extends FilterInputStream {
+		@PackagePrivate
+		PipeInputStream(final InputStream inputStream) {
+			super(inputStream);
+		}
+
+		@Override
+		public int available() {
+			return 0;
+		}
+	}
+}
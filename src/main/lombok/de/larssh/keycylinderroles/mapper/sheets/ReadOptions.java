@@ -0,0 +1,87 @@
+package de.larssh.keycylinderroles.mapper.sheets;
+
+import java.util.Optional;
+
+import de.larssh.utils.text.Strings;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import lombok.With;
+
+/**
+ * Options for reading documents
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class ReadOptions {
+	/**
+	 * Default options, reading all rows
+	 */
+	public static final ReadOptions DEFAULT = new ReadOptions(Optional.empty(), Optional.empty(), Optional.empty());
+
+	private static boolean matches(final Optional<String> filter, final Optional<String> value) {
+		return !filter.isPresent() || value.filter(v -> Strings.equalsIgnoreCaseAscii(v, filter.get())).isPresent();
+	}
+
+	/**
+	 * Building cylinders need to be located in to be read
+	 */
+	@With
+	Optional<String> building;
+
+	/**
+	 * Section cylinders need to be located in to be read
+	 */
+	@With
+	Optional<String> section;
+
+	/**
+	 * Group keys need to be part of to be read
+	 */
+	@With
+	Optional<String> group;
+
+	/**
+	 * Determines if cylinders are filtered by any attribute.
+	 *
+	 * @return {@code true} if cylinders are filtered
+	 */
+	public boolean isFilteringCylinders() {
+		return building.isPresent() || section.isPresent();
+	}
+
+	/**
+	 * Determines if keys are filtered by any attribute.
+	 *
+	 * @return {@code true} if keys are filtered
+	 */
+	public boolean isFilteringKeys() {
+		return group.isPresent();
+	}
+
+	/**
+	 * Determines if a cylinder with the given attributes shall be read. Filters are
+	 * compared case insensitive. Cylinders without a value for a filtered attribute
+	 * do not match.
+	 *
+	 * @param cylinderSection  the section of the cylinder
+	 * @param cylinderBuilding the building of the cylinder
+	 * @return {@code true} if the cylinder shall be read
+	 */
+	public boolean matchesCylinder(final Optional<String> cylinderSection, final Optional<String> cylinderBuilding) {
+		return matches(section, cylinderSection) && matches(building, cylinderBuilding);
+	}
+
+	/**
+	 * Determines if a key with the given attributes shall be read. Filters are
+	 * compared case insensitive. Keys without a group do not match a group filter.
+	 *
+	 * @param keyGroup the group of the key
+	 * @return {@code true} if the key shall be read
+	 */
+	public boolean matchesKey(final Optional<String> keyGroup) {
+		return matches(group, keyGroup);
+	}
+}
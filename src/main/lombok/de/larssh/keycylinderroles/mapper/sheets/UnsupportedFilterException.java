@@ -0,0 +1,21 @@
+package de.larssh.keycylinderroles.mapper.sheets;
+
+/**
+ * Thrown when a document shall be filtered by an attribute, which it does not
+ * contain. Filtering such a document would silently exclude all of its keys or
+ * cylinders.
+ */
+public class UnsupportedFilterException extends IllegalArgumentException {
+	/**
+	 * Constructs a new exception for a filter, which cannot be applied.
+	 *
+	 * @param documentType the type of document, e.g. {@code CSV file}
+	 * @param attribute    the attribute to filter by
+	 */
+	public UnsupportedFilterException(final String documentType, final String attribute) {
+		super(String.format("The %s does not contain %s, therefore it cannot be filtered by %s.",
+				documentType,
+				attribute,
+				attribute));
+	}
+}
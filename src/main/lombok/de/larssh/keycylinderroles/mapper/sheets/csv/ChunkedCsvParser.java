@@ -0,0 +1,198 @@
+package de.larssh.keycylinderroles.mapper.sheets.csv;
+
+import static java.util.stream.Collectors.toList;
+
+import java.io.CharArrayReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import de.larssh.utils.annotations.PackagePrivate;
+import de.larssh.utils.text.Csv;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Parsing CSV content in chunks concurrently.
+ *
+ * <p>
+ * Chunk boundaries are determined by a single sequential scan, which follows
+ * the escaping rules of {@link Csv#parse(java.io.Reader, char, char)} and
+ * splits after line feeds outside of escaped values only. Counting escapers is
+ * not sufficient, as escapers inside unescaped values are taken literally. The
+ * chunks are then decoded and parsed concurrently and their rows are stitched
+ * together in order.
+ *
+ * <p>
+ * Only UTF-8 and UTF-16 LE are split, as line feeds and escapers cannot be part
+ * of other characters in those charsets. Content of other charsets and content
+ * using carriage returns only as line separator is parsed as one chunk.
+ */
+@UtilityClass
+class ChunkedCsvParser {
+	/**
+	 * Minimum number of bytes per chunk, avoiding the overhead of concurrency for
+	 * small files
+	 */
+	private static final int MIN_CHUNK_SIZE = 256 * 1024;
+
+	private static final byte LINE_FEED = '\n';
+
+	/**
+	 * Parses {@code content} from its current position to its limit. The position
+	 * of {@code content} is not modified.
+	 *
+	 * @param content   the CSV content without byte order mark
+	 * @param charset   the charset of {@code content}
+	 * @param separator the CSV separator, which must be an ASCII character
+	 * @param escaper   the CSV escaper, which must be an ASCII character
+	 * @return the parsed CSV
+	 * @throws IOException on IO error
+	 */
+	public static List<? extends List<String>> parse(final ByteBuffer content,
+			final Charset charset,
+			final char separator,
+			final char escaper) throws IOException {
+		return parse(content,
+				charset,
+				separator,
+				escaper,
+				Math.min(Runtime.getRuntime().availableProcessors(), content.remaining() / MIN_CHUNK_SIZE));
+	}
+
+	/**
+	 * Parses {@code content} from its current position to its limit using up to
+	 * {@code numberOfChunks} chunks. The position of {@code content} is not
+	 * modified.
+	 *
+	 * @param content        the CSV content without byte order mark
+	 * @param charset        the charset of {@code content}
+	 * @param separator      the CSV separator, which must be an ASCII character
+	 * @param escaper        the CSV escaper, which must be an ASCII character
+	 * @param numberOfChunks the number of chunks to aim for
+	 * @return the parsed CSV
+	 * @throws IOException on IO error
+	 */
+	@PackagePrivate
+	@SuppressWarnings("PMD.PreserveStackTrace")
+	static List<? extends List<String>> parse(final ByteBuffer content,
+			final Charset charset,
+			final char separator,
+			final char escaper,
+			final int numberOfChunks) throws IOException {
+		final ByteBuffer buffer = content.slice();
+		final int unit = getCodeUnitSize(charset);
+		if (unit == 0 || numberOfChunks < 2) {
+			return Csv.parse(decode(buffer, 0, buffer.remaining(), charset), separator, escaper);
+		}
+
+		final List<Integer> boundaries = getBoundaries(buffer,
+				unit,
+				Math.max(1, buffer.remaining() / numberOfChunks),
+				(byte) separator,
+				(byte) escaper);
+
+		try {
+			return IntStream.range(0, boundaries.size() - 1)
+					.parallel()
+					.mapToObj(chunk -> parseChunk(buffer,
+							boundaries.get(chunk),
+							boundaries.get(chunk + 1),
+							charset,
+							separator,
+							escaper))
+					.<List<String>>flatMap(List::stream)
+					.collect(toList());
+		} catch (final UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Determines the start of each chunk, followed by the end of the last chunk.
+	 * Chunks end after the first record end following {@code chunkSize} bytes.
+	 *
+	 * @param buffer    the CSV content
+	 * @param unit      the size of a code unit in bytes
+	 * @param chunkSize the minimum number of bytes per chunk
+	 * @param separator the CSV separator
+	 * @param escaper   the CSV escaper
+	 * @return the strictly increasing chunk boundaries
+	 */
+	private static List<Integer> getBoundaries(final ByteBuffer buffer,
+			final int unit,
+			final int chunkSize,
+			final byte separator,
+			final byte escaper) {
+		final List<Integer> boundaries = new ArrayList<>();
+		boundaries.add(0);
+
+		final int length = buffer.remaining();
+		int nextBoundary = chunkSize;
+		CsvScanState state = CsvScanState.FIELD_START;
+		for (int index = 0; index < length; index += unit) {
+			final int value = getAsciiCharacter(buffer, index, unit);
+			if (value == LINE_FEED && state != CsvScanState.ESCAPED) {
+				state = CsvScanState.FIELD_START;
+				if (index + unit >= nextBoundary && index + unit < length) {
+					boundaries.add(index + unit);
+					nextBoundary = index + unit + chunkSize;
+				}
+			} else {
+				state = state.next(value, separator, escaper);
+			}
+		}
+		boundaries.add(length);
+		return boundaries;
+	}
+
+	// Reads the code unit at index, returning -1 for non-ASCII characters
+	private static int getAsciiCharacter(final ByteBuffer buffer, final int index, final int unit) {
+		final byte value = buffer.get(index);
+		if (value < 0 || unit == 2 && (index + 1 >= buffer.remaining() || buffer.get(index + 1) != 0)) {
+			return -1;
+		}
+		return value;
+	}
+
+	// Size of a code unit in bytes for charsets supporting splitting, else 0
+	private static int getCodeUnitSize(final Charset charset) {
+		if (StandardCharsets.UTF_16LE.equals(charset)) {
+			return 2;
+		}
+		return StandardCharsets.UTF_8.equals(charset) ? 1 : 0;
+	}
+
+	private static Reader decode(final ByteBuffer buffer, final int start, final int end, final Charset charset) {
+		final ByteBuffer chunk = buffer.duplicate();
+		chunk.position(start);
+		chunk.limit(end);
+
+		final CharBuffer characters = charset.decode(chunk);
+		return new CharArrayReader(characters.array(),
+				characters.arrayOffset() + characters.position(),
+				characters.remaining());
+	}
+
+	@SuppressFBWarnings(value = "EXS_EXCEPTION_SOFTENING_NO_CONSTRAINTS",
+			justification = "unwrapped by parse(ByteBuffer, Charset, char, char, int)")
+	private static List<? extends List<String>> parseChunk(final ByteBuffer buffer,
+			final int start,
+			final int end,
+			final Charset charset,
+			final char separator,
+			final char escaper) {
+		try {
+			return Csv.parse(decode(buffer, start, end, charset), separator, escaper);
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
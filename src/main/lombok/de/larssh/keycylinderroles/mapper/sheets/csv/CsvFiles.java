@@ -4,9 +4,13 @@ import static java.util.Collections.emptyMap;
 import static java.util.Collections.unmodifiableMap;
 import static java.util.stream.Collectors.toList;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.Reader;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -21,21 +25,27 @@ import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.Set;
+import java.util.stream.IntStream;
+
+import org.apache.poi.util.IOUtils;
 
 import de.larssh.keycylinderroles.mapper.data.Cylinder;
 import de.larssh.keycylinderroles.mapper.data.Key;
 import de.larssh.keycylinderroles.mapper.data.KeyCylinderPermissions;
+import de.larssh.keycylinderroles.mapper.sheets.ReadOptions;
+import de.larssh.keycylinderroles.mapper.sheets.UnsupportedFilterException;
+import de.larssh.keycylinderroles.mapper.utils.ByteBuffers;
 import de.larssh.utils.Optionals;
 import de.larssh.utils.annotations.PackagePrivate;
 import de.larssh.utils.text.Csv;
-import de.larssh.utils.text.CsvRow;
 import de.larssh.utils.text.Strings;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.UtilityClass;
 
 @UtilityClass
-@SuppressWarnings("PMD.LooseCoupling")
+@SuppressWarnings("PMD.ExcessiveImports")
 public class CsvFiles {
 	private static final char CSV_SEPARATOR = ';';
 
@@ -55,28 +65,151 @@ public class CsvFiles {
 
 	private static final int ROW_KEY_ID = 4;
 
-	private static Charset determineCharset(final Path path) throws IOException {
-		if (System.currentTimeMillis() > 0) {
+	private static final int CHARSET_PREFIX_LENGTH = 64;
+
+	private static final byte[] BOM_UTF_16LE = { (byte) 0xFF, (byte) 0xFE };
+
+	private static final byte[] BOM_UTF_8 = { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF };
+
+	/**
+	 * Determines the charset based on the prefix of a CSV file. The prefix is read
+	 * from {@code inputStream}, which is reset afterwards, skipping the byte order
+	 * mark, if any.
+	 *
+	 * @param inputStream an input stream supporting mark and reset
+	 * @return the determined charset
+	 * @throws IOException on IO error
+	 */
+	private static Charset determineCharset(final InputStream inputStream) throws IOException {
+		final byte[] prefix = new byte[CHARSET_PREFIX_LENGTH];
+		inputStream.mark(CHARSET_PREFIX_LENGTH);
+		final int length = Math.max(0, IOUtils.readFully(inputStream, prefix));
+		inputStream.reset();
+
+		if (startsWith(prefix, length, BOM_UTF_16LE)) {
+			IOUtils.skipFully(inputStream, BOM_UTF_16LE.length);
 			return StandardCharsets.UTF_16LE;
 		}
+		if (startsWith(prefix, length, BOM_UTF_8)) {
+			IOUtils.skipFully(inputStream, BOM_UTF_8.length);
+			return StandardCharsets.UTF_8;
+		}
 
-		// SimonVoss Locking System Management seems to use UTF-16 LE by default
-		try (InputStream inputStream = Files.newInputStream(path)) {
-			inputStream.read();
-			if (inputStream.read() == 0) {
+		// SimonVoss Locking System Management seems to use UTF-16 LE by default, which
+		// contains zero bytes for all ASCII characters
+		for (int index = 0; index < length; index += 1) {
+			if (prefix[index] == 0) {
 				return StandardCharsets.UTF_16LE;
 			}
 		}
-		return StandardCharsets.UTF_8;
+		return length == 0 ? StandardCharsets.UTF_16LE : StandardCharsets.UTF_8;
+	}
+
+	private static boolean startsWith(final byte[] value, final int length, final byte[] prefix) {
+		if (length < prefix.length) {
+			return false;
+		}
+		for (int index = 0; index < prefix.length; index += 1) {
+			if (value[index] != prefix[index]) {
+				return false;
+			}
+		}
+		return true;
 	}
 
 	public static KeyCylinderPermissions read(final Path path) throws IOException {
-		try (Reader reader = Files.newBufferedReader(path, determineCharset(path))) {
-			final Csv csv = Csv.parse(reader, CSV_SEPARATOR, CSV_ESCAPER);
-			return new CsvFileReader(csv).read();
+		return read(path, ReadOptions.DEFAULT);
+	}
+
+	@SuppressFBWarnings(value = "OPM_OVERLY_PERMISSIVE_METHOD", justification = "API method")
+	public static KeyCylinderPermissions read(final Path path, final ReadOptions options) throws IOException {
+		final Optional<ByteBuffer> buffer = ByteBuffers.map(path);
+		if (buffer.isPresent()) {
+			return read(buffer.get(), options);
+		}
+		try (InputStream inputStream = Files.newInputStream(path)) {
+			return read(inputStream, options);
 		}
 	}
 
+	/**
+	 * Reads a CSV file from {@code buffer}, starting at its current position. The
+	 * position of {@code buffer} is not modified.
+	 *
+	 * @param buffer the CSV file content
+	 * @return the permissions
+	 * @throws IOException on IO error
+	 */
+	public static KeyCylinderPermissions read(final ByteBuffer buffer) throws IOException {
+		return read(buffer, ReadOptions.DEFAULT);
+	}
+
+	/**
+	 * Reads a CSV file from {@code buffer}, starting at its current position. The
+	 * position of {@code buffer} is not modified.
+	 *
+	 * <p>
+	 * Large files are split into chunks at record boundaries, which are decoded and
+	 * parsed concurrently.
+	 *
+	 * @param buffer  the CSV file content
+	 * @param options the read options
+	 * @return the permissions
+	 * @throws IOException on IO error
+	 */
+	public static KeyCylinderPermissions read(final ByteBuffer buffer, final ReadOptions options) throws IOException {
+		final ByteBuffer content = buffer.duplicate();
+		final Charset charset;
+		try (InputStream inputStream = ByteBuffers.newInputStream(buffer)) {
+			charset = determineCharset(inputStream);
+
+			// Skipping the byte order mark
+			content.position(content.limit() - inputStream.available());
+		}
+
+		final List<? extends List<String>> csv = ChunkedCsvParser.parse(content, charset, CSV_SEPARATOR, CSV_ESCAPER);
+		return new CsvFileReader(csv, options).read();
+	}
+
+	/**
+	 * Reads a CSV file from {@code inputStream}. The charset is determined by a
+	 * buffered prefix, therefore the input is read exactly once.
+	 *
+	 * <p>
+	 * {@code inputStream} is not closed by this method.
+	 *
+	 * @param inputStream the CSV file content
+	 * @return the permissions
+	 * @throws IOException on IO error
+	 */
+	public static KeyCylinderPermissions read(final InputStream inputStream) throws IOException {
+		return read(inputStream, ReadOptions.DEFAULT);
+	}
+
+	/**
+	 * Reads a CSV file from {@code inputStream}. The charset is determined by a
+	 * buffered prefix, therefore the input is read exactly once.
+	 *
+	 * <p>
+	 * {@code inputStream} is not closed by this method.
+	 *
+	 * @param inputStream the CSV file content
+	 * @param options     the read options
+	 * @return the permissions
+	 * @throws IOException on IO error
+	 */
+	@SuppressWarnings({ "checkstyle:SuppressWarnings", "PMD.CloseResource", "resource" })
+	public static KeyCylinderPermissions read(final InputStream inputStream, final ReadOptions options)
+			throws IOException {
+		final InputStream markableInputStream
+				= inputStream.markSupported() ? inputStream : new BufferedInputStream(inputStream);
+		final Charset charset = determineCharset(markableInputStream);
+
+		final Reader reader = new BufferedReader(new InputStreamReader(markableInputStream, charset));
+		final List<? extends List<String>> csv = Csv.parse(reader, CSV_SEPARATOR, CSV_ESCAPER);
+		return new CsvFileReader(csv, options).read();
+	}
+
 	@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
 	private static class CsvFileReader {
 		private static OptionalInt getFirstNonBlank(final Iterable<String> values) {
@@ -90,24 +223,36 @@ public class CsvFiles {
 			return OptionalInt.empty();
 		}
 
-		private static int getFirstNonBlankColumn(final Collection<CsvRow> csv, final int column) {
-			return csv.stream().allMatch(row -> row.size() <= column || Strings.isBlank(row.get(column)))
-					? getFirstNonBlankColumn(csv, column + 1)
-					: column;
+		private static int getFirstNonBlankColumn(final Collection<? extends List<String>> csv, final int column) {
+			// Stopping after the last column, as blank files contain no filled column
+			return csv.stream().anyMatch(row -> row.size() > column)
+					&& csv.stream().allMatch(row -> row.size() <= column || Strings.isBlank(row.get(column)))
+							? getFirstNonBlankColumn(csv, column + 1)
+							: column;
 		}
 
-		private static Optional<CsvRow> getFirstNonBlankRow(final Collection<CsvRow> csv) {
-			return csv.stream().filter(row -> !row.stream().allMatch(Strings::isBlank)).findFirst();
+		private static OptionalInt getFirstNonBlankRow(final List<? extends List<String>> csv) {
+			return IntStream.range(0, csv.size())
+					.filter(row -> !csv.get(row).stream().allMatch(Strings::isBlank))
+					.findFirst();
 		}
 
 		private static Optional<String> getValue(final List<String> values, final int index) {
 			return values.size() <= index ? Optional.empty() : Optionals.ofNonBlank(values.get(index));
 		}
 
-		Csv csv;
+		List<? extends List<String>> csv;
+
+		ReadOptions options;
 
 		@PackagePrivate
+		@SuppressFBWarnings(value = "WEM_WEAK_EXCEPTION_MESSAGING",
+				justification = "the unsupported filter is described sufficiently")
 		KeyCylinderPermissions read() {
+			if (options.getSection().isPresent()) {
+				throw new UnsupportedFilterException("CSV file", "sections");
+			}
+
 			final Map<Cylinder, Integer> cylinders = getCylinders();
 			final Map<Key, Integer> keys = getKeys();
 			return getPermissions(cylinders, keys);
@@ -129,14 +274,26 @@ public class CsvFiles {
 			final int numberOfRows = csv.size();
 			final Map<Cylinder, Integer> cylinderRows = new LinkedHashMap<>(numberOfRows - firstCylinderRow);
 			for (int row = firstCylinderRow; row < numberOfRows; row += 1) {
-				cylinderRows.put(createCylinder(firstFilledColumn, row), row);
+				if (matchesCylinder(firstFilledColumn, row)) {
+					cylinderRows.put(createCylinder(firstFilledColumn, row), row);
+				}
 			}
 			return unmodifiableMap(cylinderRows);
 		}
 
+		private boolean matchesCylinder(final int column, final int row) {
+			return !options.isFilteringCylinders()
+					|| options.matchesCylinder(Optional.empty(),
+							getValue(csv.get(row), column + COLUMN_CYLINDER_BUILDING));
+		}
+
+		private boolean matchesKey(final int column, final int row) {
+			return !options.isFilteringKeys() || options.matchesKey(getValue(csv.get(row + ROW_KEY_GROUP), column));
+		}
+
 		@SuppressWarnings("PMD.ShortVariable")
 		private Cylinder createCylinder(final int column, final int rowIndex) {
-			final CsvRow row = csv.get(rowIndex);
+			final List<String> row = csv.get(rowIndex);
 
 			final String id = getValue(row, column + COLUMN_CYLINDER_ID).get(); // TODO
 			final Optional<String> name = getValue(row, column + COLUMN_CYLINDER_NAME);
@@ -146,24 +303,26 @@ public class CsvFiles {
 		}
 
 		private Map<Key, Integer> getKeys() {
-			final Optional<CsvRow> firstFilledRow = getFirstNonBlankRow(csv);
+			final OptionalInt firstFilledRow = getFirstNonBlankRow(csv);
 			if (!firstFilledRow.isPresent()) {
 				return emptyMap();
 			}
 
-			final OptionalInt firstKeyColumn = Optionals.flatMapToInt(firstFilledRow, CsvFileReader::getFirstNonBlank);
+			final OptionalInt firstKeyColumn = getFirstNonBlank(csv.get(firstFilledRow.getAsInt()));
 			if (!firstKeyColumn.isPresent()) {
 				return emptyMap();
 			}
 
-			return getKeys(firstKeyColumn.getAsInt(), firstFilledRow.get());
+			return getKeys(firstKeyColumn.getAsInt(), firstFilledRow.getAsInt());
 		}
 
-		private Map<Key, Integer> getKeys(final int firstKeyColumn, final CsvRow firstFilledRow) {
-			final int numberOfColumns = firstFilledRow.size();
+		private Map<Key, Integer> getKeys(final int firstKeyColumn, final int firstFilledRow) {
+			final int numberOfColumns = csv.get(firstFilledRow).size();
 			final Map<Key, Integer> keyColumns = new LinkedHashMap<>(numberOfColumns - firstKeyColumn);
 			for (int column = firstKeyColumn; column < numberOfColumns; column += 1) {
-				keyColumns.put(createKey(column, firstFilledRow.getRowIndex()), column);
+				if (matchesKey(column, firstFilledRow)) {
+					keyColumns.put(createKey(column, firstFilledRow), column);
+				}
 			}
 			return unmodifiableMap(keyColumns);
 		}
@@ -0,0 +1,90 @@
+package de.larssh.keycylinderroles.mapper.sheets.csv;
+
+import de.larssh.utils.annotations.PackagePrivate;
+
+/**
+ * State of the scan for record ends of {@link ChunkedCsvParser}
+ */
+enum CsvScanState {
+	/**
+	 * Start of a value, optionally preceded by whitespace
+	 */
+	FIELD_START,
+
+	/**
+	 * Inside a value, which does not start with the escaper
+	 */
+	UNESCAPED,
+
+	/**
+	 * Inside an escaped value
+	 */
+	ESCAPED,
+
+	/**
+	 * Directly after an escaper inside an escaped value, which either closes the
+	 * value or is followed by another escaper
+	 */
+	ESCAPER,
+
+	/**
+	 * After a closed escaped value, followed by whitespace
+	 */
+	CLOSED;
+
+	/**
+	 * Carriage return, which ends a value outside of escaped values
+	 */
+	private static final byte CARRIAGE_RETURN = '\r';
+
+	/**
+	 * Space, which is allowed around escaped values
+	 */
+	private static final byte SPACE = ' ';
+
+	/**
+	 * Tab, which is allowed around escaped values
+	 */
+	private static final byte TAB = '\t';
+
+	/**
+	 * Next state after reading {@code value}. Line feeds outside of escaped values
+	 * are handled by the caller.
+	 *
+	 * @param value     the ASCII character read or {@code -1}
+	 * @param separator the CSV separator
+	 * @param escaper   the CSV escaper
+	 * @return the next state
+	 */
+	@PackagePrivate
+	CsvScanState next(final int value, final byte separator, final byte escaper) {
+		if (this == ESCAPED) {
+			return value == escaper ? ESCAPER : ESCAPED;
+		}
+		if (value == separator || value == CARRIAGE_RETURN) {
+			return FIELD_START;
+		}
+		return this == UNESCAPED ? UNESCAPED : nextUnseparated(value, escaper);
+	}
+
+	/**
+	 * Next state after reading {@code value} at the start of a value or after an
+	 * escaper, given that {@code value} is no separator.
+	 *
+	 * @param value   the ASCII character read or {@code -1}
+	 * @param escaper the CSV escaper
+	 * @return the next state
+	 */
+	private CsvScanState nextUnseparated(final int value, final byte escaper) {
+		final boolean whitespace = value == SPACE || value == TAB;
+		if (this == FIELD_START) {
+			if (value == escaper) {
+				return ESCAPED;
+			}
+			return whitespace ? FIELD_START : UNESCAPED;
+		}
+		// Escapers followed by anything but a separator or whitespace are taken
+		// literally.
+		return whitespace ? CLOSED : ESCAPED;
+	}
+}
@@ -1,18 +1,20 @@
 package de.larssh.keycylinderroles.mapper.sheets.excel;
 
 import static de.larssh.utils.Collectors.toLinkedHashMap;
-import static java.util.Collections.unmodifiableMap;
-import static java.util.stream.Collectors.toSet;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.Set;
@@ -24,11 +26,17 @@ import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbookFactory;
 
 import de.larssh.keycylinderroles.mapper.data.Cylinder;
 import de.larssh.keycylinderroles.mapper.data.Key;
 import de.larssh.keycylinderroles.mapper.data.KeyCylinderPermissions;
+import de.larssh.keycylinderroles.mapper.data.Roles;
+import de.larssh.keycylinderroles.mapper.sheets.ReadOptions;
+import de.larssh.keycylinderroles.mapper.sheets.UnsupportedFilterException;
+import de.larssh.keycylinderroles.mapper.sheets.excel.PermissionResolver.RolePermissionIds;
+import de.larssh.keycylinderroles.mapper.utils.ByteBuffers;
 import de.larssh.keycylinderroles.mapper.utils.CellValues;
 import de.larssh.keycylinderroles.mapper.utils.Workbooks;
 import de.larssh.utils.Nullables;
@@ -36,12 +44,13 @@ import de.larssh.utils.OptionalInts;
 import de.larssh.utils.Optionals;
 import de.larssh.utils.annotations.PackagePrivate;
 import de.larssh.utils.text.Strings;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.UtilityClass;
 
 @UtilityClass
-@SuppressWarnings({ "checkstyle:MultipleStringLiterals", "PMD.ExcessiveImports" })
+@SuppressWarnings({ "checkstyle:MultipleStringLiterals", "PMD.CouplingBetweenObjects", "PMD.ExcessiveImports" })
 public class ExcelFiles {
 	private static final String SHEET_KEYS = "Transponder";
 
@@ -59,6 +68,8 @@ public class ExcelFiles {
 
 	private static final String COLUMN_KEY_FIRST_NAME = "Vorname";
 
+	private static final String COLUMN_KEY_GROUP = "Gruppe";
+
 	private static final String COLUMN_KEY_STATUS = "Status";
 
 	private static final String COLUMN_CYLINDER_ID = "ID";
@@ -77,6 +88,8 @@ public class ExcelFiles {
 
 	private static final String COLUMN_ROLE_CYLINDER = "Schließzylinder";
 
+	private static final String COLUMN_ROLE_INCLUDED = "Enthaltene Rolle";
+
 	private static final String VALUE_IGNORE = "ignorieren";
 
 	static {
@@ -88,14 +101,107 @@ public class ExcelFiles {
 	}
 
 	public static KeyCylinderPermissions read(final Path path) throws IOException {
-		try (InputStream inputStream = Files.newInputStream(path);
-				Workbook workbook = WorkbookFactory.create(inputStream)) {
-			return new ExcelFileReader(workbook).read();
+		return read(path, ReadOptions.DEFAULT);
+	}
+
+	@SuppressFBWarnings(value = "OPM_OVERLY_PERMISSIVE_METHOD", justification = "API method")
+	public static KeyCylinderPermissions read(final Path path, final ReadOptions options) throws IOException {
+		try (InputStream inputStream = Files.newInputStream(path)) {
+			return read(inputStream, options);
+		}
+	}
+
+	/**
+	 * Reads an Excel document from {@code buffer}, starting at its current
+	 * position. The position of {@code buffer} is not modified.
+	 *
+	 * @param buffer the Excel document content
+	 * @return the permissions
+	 * @throws IOException on IO error
+	 */
+	public static KeyCylinderPermissions read(final ByteBuffer buffer) throws IOException {
+		return read(buffer, ReadOptions.DEFAULT);
+	}
+
+	/**
+	 * Reads an Excel document from {@code buffer}, starting at its current
+	 * position. The position of {@code buffer} is not modified.
+	 *
+	 * @param buffer  the Excel document content
+	 * @param options the read options
+	 * @return the permissions
+	 * @throws IOException on IO error
+	 */
+	public static KeyCylinderPermissions read(final ByteBuffer buffer, final ReadOptions options) throws IOException {
+		return read(ByteBuffers.newInputStream(buffer), options);
+	}
+
+	/**
+	 * Reads an Excel document from {@code inputStream}. Both, XLS and XLSX, are
+	 * supported.
+	 *
+	 * <p>
+	 * {@code inputStream} is not closed by this method.
+	 *
+	 * @param inputStream the Excel document content
+	 * @return the permissions
+	 * @throws IOException on IO error
+	 */
+	public static KeyCylinderPermissions read(final InputStream inputStream) throws IOException {
+		return read(inputStream, ReadOptions.DEFAULT);
+	}
+
+	/**
+	 * Reads an Excel document from {@code inputStream}. Both, XLS and XLSX, are
+	 * supported.
+	 *
+	 * <p>
+	 * {@code inputStream} is not closed by this method.
+	 *
+	 * @param inputStream the Excel document content
+	 * @param options     the read options
+	 * @return the permissions
+	 * @throws IOException on IO error
+	 */
+	public static KeyCylinderPermissions read(final InputStream inputStream, final ReadOptions options)
+			throws IOException {
+		try (Workbook workbook = WorkbookFactory.create(inputStream)) {
+			return new ExcelFileReader(workbook, options).read();
+		}
+	}
+
+	/**
+	 * Writes {@code keys}, {@code roles} and the assignments of keys to roles as
+	 * XLSX document to {@code outputStream}. The written document can be read using
+	 * {@link #read(InputStream)}.
+	 *
+	 * <p>
+	 * {@code outputStream} is not closed by this method.
+	 *
+	 * @param outputStream the output stream to write to
+	 * @param keys         the keys
+	 * @param roles        the roles, including all cylinders
+	 * @param keyRoles     role names by key
+	 * @throws IOException on IO error
+	 */
+	public static void write(final OutputStream outputStream,
+			final Collection<Key> keys,
+			final Roles roles,
+			final Map<Key, Set<String>> keyRoles) throws IOException {
+		try (Workbook workbook = new XSSFWorkbook()) {
+			new ExcelFileWriter(workbook, keys, roles, keyRoles).write();
+			workbook.write(outputStream);
 		}
 	}
 
 	@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
 	private static class ExcelFileReader {
+		private static void checkFilter(final Optional<String> filter, final OptionalInt column, final String name) {
+			if (filter.isPresent() && !column.isPresent()) {
+				throw new UnsupportedFilterException("Excel document", String.format("the column \"%s\"", name));
+			}
+		}
+
 		private static OptionalInt getColumn(final Row row, final String value) {
 			final int numberOfColumns = row.getLastCellNum() + 1;
 			for (int column = row.getFirstCellNum(); column <= numberOfColumns; column += 1) {
@@ -107,6 +213,13 @@ public class ExcelFiles {
 			return OptionalInt.empty();
 		}
 
+		private static String getRole(final Row row, final int column) {
+			return getValue(row, column).orElseThrow(
+					() -> new IllegalArgumentException(String.format("Row %d of sheet \"%s\" lacks a role.",
+							row.getRowNum() + 1,
+							row.getSheet().getSheetName())));
+		}
+
 		private static Optional<String> getValue(final Row row, final int column) {
 			final Cell cell = row.getCell(column);
 			return cell == null
@@ -120,15 +233,16 @@ public class ExcelFiles {
 
 		Workbook workbook;
 
+		ReadOptions options;
+
 		@PackagePrivate
 		KeyCylinderPermissions read() {
+			// POI workbooks are not thread-safe, not even for reading, as cell values and
+			// shared strings are parsed on first access. Therefore the sheets are read one
+			// after another.
 			final Map<String, Key> keys = getKeys();
-			final Map<Key, Set<String>> keyRoles = getKeyRoles(keys);
-
 			final Map<String, Cylinder> cylinders = getCylinders();
-			final Map<String, Set<Cylinder>> rolePermissions = getRolePermissions(cylinders);
-
-			return getPermissions(keys.values(), keyRoles, cylinders.values(), rolePermissions);
+			return new PermissionResolver(options).resolve(keys, cylinders, getKeyRoleIds(), getRolePermissionIds());
 		}
 
 		@SuppressWarnings("PMD.ShortVariable")
@@ -148,19 +262,26 @@ public class ExcelFiles {
 			final OptionalInt sectionColumn = getColumn(header, COLUMN_CYLINDER_SECTION);
 			final OptionalInt buildingColumn = getColumn(header, COLUMN_CYLINDER_BUILDING);
 			final OptionalInt statusColumn = getColumn(header, COLUMN_CYLINDER_STATUS);
+			checkFilter(options.getSection(), sectionColumn, COLUMN_CYLINDER_SECTION);
+			checkFilter(options.getBuilding(), buildingColumn, COLUMN_CYLINDER_BUILDING);
 
 			return Workbooks.rows(sheet).skip(1).map(row -> {
 				final Optional<String> id = getValue(row, idColumn);
 				if (!id.isPresent()) {
 					return null; // TODO: Test filtering out these rows
 				}
+				final Optional<String> section = getValue(row, sectionColumn);
+				final Optional<String> building = getValue(row, buildingColumn);
+				if (options.isFilteringCylinders() && !options.matchesCylinder(section, building)) {
+					return null;
+				}
 
 				return new Cylinder(id.get(),
 						getValue(row, nameColumn).orElse(""),
-						getValue(row, sectionColumn),
-						getValue(row, buildingColumn),
+						section,
+						building,
 						getValue(row, statusColumn).map(VALUE_IGNORE::equals).orElse(Boolean.FALSE));
-			}).collect(toLinkedHashMap(Cylinder::getId, Function.identity()));
+			}).filter(Objects::nonNull).collect(toLinkedHashMap(Cylinder::getId, Function.identity()));
 		}
 
 		@SuppressWarnings("PMD.ShortVariable")
@@ -179,25 +300,30 @@ public class ExcelFiles {
 			final OptionalInt nameColumn = getColumn(header, COLUMN_KEY_NAME);
 			final OptionalInt lastNameColumn = getColumn(header, COLUMN_KEY_LAST_NAME);
 			final OptionalInt firstNameColumn = getColumn(header, COLUMN_KEY_FIRST_NAME);
+			final OptionalInt groupColumn = getColumn(header, COLUMN_KEY_GROUP);
 			final OptionalInt statusColumn = getColumn(header, COLUMN_KEY_STATUS);
+			checkFilter(options.getGroup(), groupColumn, COLUMN_KEY_GROUP);
 
 			return Workbooks.rows(sheet).skip(1).map(row -> {
 				final Optional<String> id = getValue(row, idColumn);
 				if (!id.isPresent()) {
 					return null; // TODO: Test filtering out these rows
 				}
+				if (options.isFilteringKeys() && !options.matchesKey(getValue(row, groupColumn))) {
+					return null;
+				}
 
 				return new Key(id.get(),
 						getValue(row, nameColumn),
 						getValue(row, lastNameColumn),
 						getValue(row, firstNameColumn),
-						Optional.empty(),
+						getValue(row, groupColumn),
 						getValue(row, statusColumn).map(VALUE_IGNORE::equals).orElse(Boolean.FALSE));
-			}).collect(toLinkedHashMap(Key::getId, Function.identity()));
+			}).filter(Objects::nonNull).collect(toLinkedHashMap(Key::getId, Function.identity()));
 		}
 
 		@SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
-		private Map<Key, Set<String>> getKeyRoles(final Map<String, Key> keys) {
+		private Map<String, Set<String>> getKeyRoleIds() {
 			final Sheet sheet = workbook.getSheet(SHEET_KEY_ROLES);
 			if (sheet == null) {
 				throw new IllegalArgumentException(); // TODO
@@ -211,24 +337,23 @@ public class ExcelFiles {
 			final int keyIdColumn = getColumn(header, COLUMN_ROLE_KEY).getAsInt(); // TODO
 			final int roleColumn = getColumn(header, COLUMN_ROLE_NAME).getAsInt(); // TODO
 
-			final Map<Key, Set<String>> keyRoles = new HashMap<>();
+			final Map<String, Set<String>> keyRoleIds = new HashMap<>();
 			final int numberOfRows = sheet.getLastRowNum() + 1;
 			for (int rowIndex = sheet.getFirstRowNum() + 1; rowIndex < numberOfRows; rowIndex += 1) {
 				final Row row = sheet.getRow(rowIndex);
 
 				final Optional<String> keyId = getValue(row, keyIdColumn);
 				if (keyId.isPresent()) {
-					final Key key = Nullables.orElseThrow(keys.get(keyId.get())); // TODO
-					final String role = getValue(row, roleColumn).get(); // TODO
+					final String role = getRole(row, roleColumn);
 
-					keyRoles.computeIfAbsent(key, k -> new HashSet<>()).add(role);
+					keyRoleIds.computeIfAbsent(keyId.get(), k -> new HashSet<>()).add(role);
 				}
 			}
-			return unmodifiableMap(keyRoles);
+			return keyRoleIds;
 		}
 
 		@SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
-		private Map<String, Set<Cylinder>> getRolePermissions(final Map<String, Cylinder> cylinders) {
+		private RolePermissionIds getRolePermissionIds() {
 			final Sheet sheet = workbook.getSheet(SHEET_ROLE_PERMISSIONS);
 			if (sheet == null) {
 				throw new IllegalArgumentException(); // TODO
@@ -241,46 +366,131 @@ public class ExcelFiles {
 
 			final int roleColumn = getColumn(header, COLUMN_ROLE_NAME).getAsInt(); // TODO
 			final int cylinderIdColumn = getColumn(header, COLUMN_ROLE_CYLINDER).getAsInt(); // TODO
+			final OptionalInt includedRoleColumn = getColumn(header, COLUMN_ROLE_INCLUDED);
 
-			final Map<String, Set<Cylinder>> rolePermissions = new HashMap<>();
+			final Map<String, Set<String>> cylinderIds = new HashMap<>();
+			final Map<String, Set<String>> includedRoles = new HashMap<>();
 			final int numberOfRows = sheet.getLastRowNum() + 1;
 			for (int rowIndex = sheet.getFirstRowNum() + 1; rowIndex < numberOfRows; rowIndex += 1) {
 				final Row row = sheet.getRow(rowIndex);
 
 				final Optional<String> cylinderId = getValue(row, cylinderIdColumn);
 				if (cylinderId.isPresent()) {
-					final Cylinder cylinder = Nullables.orElseThrow(cylinders.get(cylinderId.get())); // TODO
-					final String role = getValue(row, roleColumn).get(); // TODO
+					final String role = getRole(row, roleColumn);
 
-					rolePermissions.computeIfAbsent(role, k -> new HashSet<>()).add(cylinder);
+					cylinderIds.computeIfAbsent(role, k -> new HashSet<>()).add(cylinderId.get());
+				}
+
+				final Optional<String> includedRole = getValue(row, includedRoleColumn);
+				if (includedRole.isPresent()) {
+					final String role = getRole(row, roleColumn);
+
+					includedRoles.computeIfAbsent(role, k -> new HashSet<>()).add(includedRole.get());
 				}
 			}
-			return unmodifiableMap(rolePermissions);
+			return new RolePermissionIds(cylinderIds, includedRoles);
 		}
+	}
 
-		@SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
-		private KeyCylinderPermissions getPermissions(final Collection<Key> keys,
-				final Map<Key, Set<String>> keyRoles,
-				final Collection<Cylinder> allCylinders,
-				final Map<String, Set<Cylinder>> rolePermissions) {
-			final Map<Key, Set<Cylinder>> permissions = new HashMap<>();
+	@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+	private static class ExcelFileWriter {
+		private static Row createRow(final Sheet sheet, final String... values) {
+			final Row row = sheet.createRow(sheet.getPhysicalNumberOfRows());
+			for (int column = 0; column < values.length; column += 1) {
+				if (!values[column].isEmpty()) {
+					row.createCell(column).setCellValue(values[column]);
+				}
+			}
+			return row;
+		}
+
+		private static String getStatus(final boolean ignore) {
+			return ignore ? VALUE_IGNORE : "";
+		}
+
+		Workbook workbook;
+
+		Collection<Key> keys;
+
+		Roles roles;
+
+		Map<Key, Set<String>> keyRoles;
+
+		@PackagePrivate
+		void write() {
+			writeKeys();
+			writeKeyRoles();
+			writeRolePermissions();
+			writeCylinders();
+		}
+
+		private void writeCylinders() {
+			final Sheet sheet = workbook.createSheet(SHEET_CYLINDERS);
+			createRow(sheet,
+					COLUMN_CYLINDER_ID,
+					COLUMN_CYLINDER_NAME,
+					COLUMN_CYLINDER_SECTION,
+					COLUMN_CYLINDER_BUILDING,
+					COLUMN_CYLINDER_STATUS);
+			for (final Cylinder cylinder : roles.getCylinders()) {
+				createRow(sheet,
+						cylinder.getId(),
+						cylinder.getName(),
+						cylinder.getSection().orElse(""),
+						cylinder.getBuilding().orElse(""),
+						getStatus(cylinder.isIgnore()));
+			}
+		}
+
+		private void writeKeyRoles() {
+			final Sheet sheet = workbook.createSheet(SHEET_KEY_ROLES);
+			createRow(sheet, COLUMN_ROLE_KEY, COLUMN_ROLE_NAME);
+			for (final Key key : keys) {
+				for (final String role : Nullables.orElseGet(keyRoles.get(key), Collections::<String>emptySet)) {
+					createRow(sheet, key.getId(), role);
+				}
+			}
+		}
+
+		private void writeKeys() {
+			final Sheet sheet = workbook.createSheet(SHEET_KEYS);
+			createRow(sheet,
+					COLUMN_KEY_ID,
+					COLUMN_KEY_NAME,
+					COLUMN_KEY_LAST_NAME,
+					COLUMN_KEY_FIRST_NAME,
+					COLUMN_KEY_GROUP,
+					COLUMN_KEY_STATUS);
 			for (final Key key : keys) {
-				final Set<String> roles = keyRoles.get(key);
-				if (roles != null) {
-					// Copying all cylinders to retain the original order, then remove all not
-					// permitted cylinders
-					final Set<Cylinder> cylinders = new HashSet<>(allCylinders);
-					cylinders.retainAll(roles.stream()
-							.flatMap(role -> Nullables.orElseGet(rolePermissions.get(role), Collections::emptySet)
-									.stream())
-							.collect(toSet()));
-
-					if (!cylinders.isEmpty()) {
-						permissions.put(key, cylinders);
-					}
+				createRow(sheet,
+						key.getId(),
+						key.getName().orElse(""),
+						key.getLastName().orElse(""),
+						key.getFirstName().orElse(""),
+						key.getGroup().orElse(""),
+						getStatus(key.isIgnore()));
+			}
+		}
+
+		private void writeRolePermissions() {
+			// Roles are written in order of their first assignment, followed by
+			// unassigned roles.
+			final Set<String> names = new LinkedHashSet<>();
+			for (final Key key : keys) {
+				names.addAll(Nullables.orElseGet(keyRoles.get(key), Collections::<String>emptySet));
+			}
+			names.addAll(roles.getNames());
+
+			final Sheet sheet = workbook.createSheet(SHEET_ROLE_PERMISSIONS);
+			createRow(sheet, COLUMN_ROLE_NAME, COLUMN_ROLE_CYLINDER, COLUMN_ROLE_INCLUDED);
+			for (final String role : names) {
+				for (final Cylinder cylinder : roles.getDirectCylinders(role)) {
+					createRow(sheet, role, cylinder.getId());
+				}
+				for (final String includedRole : roles.getIncludedRoles(role)) {
+					createRow(sheet, role, "", includedRole);
 				}
 			}
-			return new KeyCylinderPermissions(keys, allCylinders, permissions);
 		}
 	}
 }
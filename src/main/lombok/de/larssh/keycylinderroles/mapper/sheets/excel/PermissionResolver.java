@@ -0,0 +1,127 @@
+package de.larssh.keycylinderroles.mapper.sheets.excel;
+
+import static java.util.Collections.unmodifiableMap;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Set;
+
+import de.larssh.keycylinderroles.mapper.data.Cylinder;
+import de.larssh.keycylinderroles.mapper.data.Key;
+import de.larssh.keycylinderroles.mapper.data.KeyCylinderPermissions;
+import de.larssh.keycylinderroles.mapper.data.Roles;
+import de.larssh.keycylinderroles.mapper.sheets.ReadOptions;
+import de.larssh.utils.annotations.PackagePrivate;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Resolving the IDs referenced by the role sheets of an Excel document to the
+ * keys and cylinders read from it
+ *
+ * <p>
+ * Keys and cylinders excluded by filters are unknown, too. References to them
+ * are skipped instead of rejected if filtering.
+ */
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+final class PermissionResolver {
+	/**
+	 * The read options
+	 */
+	ReadOptions options;
+
+	/**
+	 * Resolves the permissions of {@code keys} granted by their roles.
+	 *
+	 * @param keys              keys by ID
+	 * @param cylinders         cylinders by ID
+	 * @param keyRoleIds        role names by key ID
+	 * @param rolePermissionIds cylinder IDs and included roles by role name
+	 * @return the permissions
+	 */
+	@PackagePrivate
+	KeyCylinderPermissions resolve(final Map<String, Key> keys,
+			final Map<String, Cylinder> cylinders,
+			final Map<String, Set<String>> keyRoleIds,
+			final RolePermissionIds rolePermissionIds) {
+		final Map<Key, Set<String>> keyRoles = resolveKeyRoles(keys, keyRoleIds);
+		final Roles roles = resolveRoles(cylinders, rolePermissionIds);
+		return getPermissions(keys.values(), keyRoles, roles);
+	}
+
+	@SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+	private Map<Key, Set<String>> resolveKeyRoles(final Map<String, Key> keys,
+			final Map<String, Set<String>> keyRoleIds) {
+		final Map<Key, Set<String>> keyRoles = new HashMap<>();
+		for (final Entry<String, Set<String>> entry : keyRoleIds.entrySet()) {
+			final Key key = keys.get(entry.getKey());
+			if (key != null) {
+				keyRoles.computeIfAbsent(key, k -> new HashSet<>()).addAll(entry.getValue());
+			} else if (!options.isFilteringKeys()) {
+				throw new IllegalArgumentException(
+						String.format("Roles are assigned to unknown key \"%s\".", entry.getKey()));
+			}
+		}
+		return unmodifiableMap(keyRoles);
+	}
+
+	@SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+	private Roles resolveRoles(final Map<String, Cylinder> cylinders, final RolePermissionIds rolePermissionIds) {
+		final Map<String, Set<Cylinder>> rolePermissions = new HashMap<>(rolePermissionIds.getCylinderIds().size());
+		for (final Entry<String, Set<String>> entry : rolePermissionIds.getCylinderIds().entrySet()) {
+			final Set<Cylinder> roleCylinders = new HashSet<>();
+			for (final String cylinderId : entry.getValue()) {
+				final Cylinder cylinder = cylinders.get(cylinderId);
+				if (cylinder != null) {
+					roleCylinders.add(cylinder);
+				} else if (!options.isFilteringCylinders()) {
+					throw new IllegalArgumentException(String
+							.format("Role \"%s\" references unknown cylinder \"%s\".", entry.getKey(), cylinderId));
+				}
+			}
+			rolePermissions.put(entry.getKey(), roleCylinders);
+		}
+		return new Roles(cylinders.values(), rolePermissions, rolePermissionIds.getIncludedRoles());
+	}
+
+	private KeyCylinderPermissions getPermissions(final Collection<Key> keys,
+			final Map<Key, Set<String>> keyRoles,
+			final Roles roles) {
+		final Map<Key, Set<Cylinder>> permissions = new HashMap<>();
+		for (final Key key : keys) {
+			final Set<String> keyRoleNames = keyRoles.get(key);
+			if (keyRoleNames != null) {
+				// The transitive closure of roles has been computed already, therefore
+				// resolving cylinders does not walk the role hierarchy per key.
+				final Set<Cylinder> cylinders = roles.toCylinders(roles.getCylinderBits(keyRoleNames));
+				if (!cylinders.isEmpty()) {
+					permissions.put(key, cylinders);
+				}
+			}
+		}
+		return new KeyCylinderPermissions(keys, roles.getCylinders(), permissions, Optional.of(roles), keyRoles);
+	}
+
+	/**
+	 * IDs referenced by the sheet of role permissions
+	 */
+	@Getter
+	@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+	@PackagePrivate
+	static final class RolePermissionIds {
+		/**
+		 * Cylinder IDs by role name
+		 */
+		Map<String, Set<String>> cylinderIds;
+
+		/**
+		 * Included roles by role name
+		 */
+		Map<String, Set<String>> includedRoles;
+	}
+}
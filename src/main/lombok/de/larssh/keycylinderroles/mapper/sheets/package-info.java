@@ -0,0 +1,5 @@
+/**
+ * Sheets structure of supported document types
+ */
+@de.larssh.utils.annotations.NonNullByDefault
+package de.larssh.keycylinderroles.mapper.sheets;
@@ -0,0 +1,48 @@
+package de.larssh.keycylinderroles.mapper.utils;
+
+import java.util.BitSet;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Set operations on {@link BitSet}, which do not allocate temporary bitsets
+ */
+@UtilityClass
+public class BitSets {
+	/**
+	 * Counts the bits set in both, {@code first} and {@code second}.
+	 *
+	 * @param first  the first bitset
+	 * @param second the second bitset
+	 * @return the cardinality of the intersection
+	 */
+	public static int intersectionCardinality(final BitSet first, final BitSet second) {
+		int cardinality = 0;
+		for (int index = first.nextSetBit(0); index >= 0; index = first.nextSetBit(index + 1)) {
+			if (second.get(index)) {
+				cardinality += 1;
+			}
+		}
+		return cardinality;
+	}
+
+	/**
+	 * Determines if all bits set in {@code subset} are set in {@code superset},
+	 * too.
+	 *
+	 * @param subset   the potential subset
+	 * @param superset the potential superset
+	 * @return {@code true} if {@code subset} is a subset of {@code superset}
+	 */
+	public static boolean isSubset(final BitSet subset, final BitSet superset) {
+		if (subset.cardinality() > superset.cardinality()) {
+			return false;
+		}
+		for (int index = subset.nextSetBit(0); index >= 0; index = subset.nextSetBit(index + 1)) {
+			if (!superset.get(index)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
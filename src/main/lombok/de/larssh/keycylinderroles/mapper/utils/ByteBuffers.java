@@ -0,0 +1,132 @@
+package de.larssh.keycylinderroles.mapper.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.NonFinal;
+import lombok.experimental.UtilityClass;
+
+@UtilityClass
+public class ByteBuffers {
+	/**
+	 * Maps the file at {@code path} into memory read-only. The mapping stays valid
+	 * after this method closed the file.
+	 *
+	 * <p>
+	 * Only non-empty regular files are mapped. Pipes, such as the standard input or
+	 * process substitutions, report a size of zero and need to be streamed.
+	 *
+	 * @param path the file to map
+	 * @return the mapped buffer or empty if the file is no regular file, empty or
+	 *         too large to be mapped
+	 * @throws IOException on IO error
+	 */
+	public static Optional<ByteBuffer> map(final Path path) throws IOException {
+		if (!Files.isRegularFile(path)) {
+			return Optional.empty();
+		}
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			return map(channel);
+		}
+	}
+
+	/**
+	 * Maps the file of {@code channel} into memory read-only, independent of the
+	 * position of {@code channel}. The mapping stays valid after closing
+	 * {@code channel}.
+	 *
+	 * <p>
+	 * The caller needs to make sure {@code channel} refers to a regular file.
+	 *
+	 * @param channel the channel of a regular file
+	 * @return the mapped buffer or empty if the file is empty or too large to be
+	 *         mapped
+	 * @throws IOException on IO error
+	 */
+	public static Optional<ByteBuffer> map(final FileChannel channel) throws IOException {
+		final long size = channel.size();
+		return size == 0 || size > Integer.MAX_VALUE
+				? Optional.empty()
+				: Optional.of(channel.map(MapMode.READ_ONLY, 0, size));
+	}
+
+	/**
+	 * Creates an {@link InputStream} reading the remaining bytes of {@code buffer}
+	 * without copying them. The position of {@code buffer} is not modified.
+	 *
+	 * @param buffer the buffer to read
+	 * @return an input stream supporting mark and reset
+	 */
+	public static InputStream newInputStream(final ByteBuffer buffer) {
+		return new ByteBufferInputStream(buffer.duplicate());
+	}
+
+	@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+	private static final class ByteBufferInputStream extends InputStream {
+		ByteBuffer buffer;
+
+		/**
+		 * Position of the last mark or {@code -1} if not marked, yet
+		 */
+		@NonFinal
+		int markPosition = -1;
+
+		@Override
+		public int available() {
+			return buffer.remaining();
+		}
+
+		@Override
+		public void mark(final int readLimit) {
+			markPosition = buffer.position();
+		}
+
+		@Override
+		public boolean markSupported() {
+			return true;
+		}
+
+		@Override
+		public int read() {
+			return buffer.hasRemaining() ? Byte.toUnsignedInt(buffer.get()) : -1;
+		}
+
+		@Override
+		public int read(final byte[] bytes, final int offset, final int length) {
+			if (length == 0) {
+				return 0;
+			}
+			if (!buffer.hasRemaining()) {
+				return -1;
+			}
+
+			final int count = Math.min(length, buffer.remaining());
+			buffer.get(bytes, offset, count);
+			return count;
+		}
+
+		@Override
+		public void reset() throws IOException {
+			if (markPosition < 0) {
+				throw new IOException(String.format("Resetting without mark at position %d", buffer.position()));
+			}
+			buffer.position(markPosition);
+		}
+
+		@Override
+		public long skip(final long count) {
+			final int skipped = (int) Math.max(0, Math.min(count, buffer.remaining()));
+			buffer.position(buffer.position() + skipped);
+			return skipped;
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package de.larssh.keycylinderroles.mapper.utils;
+
+import de.larssh.utils.Finals;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Non-cryptographic 64 bit hash functions
+ */
+@UtilityClass
+public class Hashes {
+	/**
+	 * Initial value of 64 bit FNV-1a
+	 */
+	private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+	/**
+	 * Multiplier of 64 bit FNV-1a per character
+	 */
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	/**
+	 * Increment of SplitMix64, the 64 bit fraction of the golden ratio
+	 */
+	public static final long GOLDEN_GAMMA = Finals.constant(0x9e3779b97f4a7c15L);
+
+	/**
+	 * Multiplier of the first mixing step of SplitMix64
+	 */
+	private static final long MIX_MULTIPLIER_1 = 0xbf58476d1ce4e5b9L;
+
+	/**
+	 * Multiplier of the second mixing step of SplitMix64
+	 */
+	private static final long MIX_MULTIPLIER_2 = 0x94d049bb133111ebL;
+
+	/**
+	 * Shift of the first mixing step of SplitMix64
+	 */
+	private static final int MIX_SHIFT_1 = 30;
+
+	/**
+	 * Shift of the second mixing step of SplitMix64
+	 */
+	private static final int MIX_SHIFT_2 = 27;
+
+	/**
+	 * Shift of the final mixing step of SplitMix64
+	 */
+	private static final int MIX_SHIFT_3 = 31;
+
+	/**
+	 * 64 bit FNV-1a hash of the characters of {@code value}
+	 *
+	 * @param value the value to hash
+	 * @return the hash
+	 */
+	public static long hash(final String value) {
+		long hash = FNV_OFFSET_BASIS;
+		for (int index = 0; index < value.length(); index += 1) {
+			hash = (hash ^ value.charAt(index)) * FNV_PRIME;
+		}
+		return hash;
+	}
+
+	/**
+	 * Finalizer of SplitMix64, spreading all input bits over the result
+	 *
+	 * @param value the value to mix
+	 * @return the mixed value
+	 */
+	public static long mix(final long value) {
+		long mixed = value + GOLDEN_GAMMA;
+		mixed = (mixed ^ mixed >>> MIX_SHIFT_1) * MIX_MULTIPLIER_1;
+		mixed = (mixed ^ mixed >>> MIX_SHIFT_2) * MIX_MULTIPLIER_2;
+		return mixed ^ mixed >>> MIX_SHIFT_3;
+	}
+}
@@ -0,0 +1,142 @@
+package de.larssh.keycylinderroles.mapper.cli;
+
+import static java.util.stream.Collectors.joining;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+import de.larssh.utils.annotations.PackagePrivate;
+import lombok.NoArgsConstructor;
+import picocli.CommandLine;
+import picocli.CommandLine.ExitCode;
+
+/**
+ * {@link HistoryCommand}
+ */
+@NoArgsConstructor
+@SuppressWarnings({ "checkstyle:MultipleStringLiterals", "java:S5786" })
+public class HistoryCommandTest {
+	private static final String CSV_HEADER = ";;;Lehrer\r\n;;;Anna\r\n;;;Müller\r\n;;;\r\n;;;K1\r\n";
+
+	private static void write(final Path path, final String z1, final String z2) throws IOException {
+		Files.write(path, create(z1, z2));
+	}
+
+	private static byte[] create(final String z1, final String z2) {
+		return (CSV_HEADER + "Haus 1;Z1;Tür 1;" + z1 + "\r\nHaus 1;Z2;Tür 2;" + z2 + "\r\n")
+				.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static void delete(final Path directory) throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			for (final Path file : (Iterable<Path>) files::iterator) {
+				Files.delete(file);
+			}
+		}
+		Files.delete(directory);
+	}
+
+	private static String lines(final String... lines) {
+		return Arrays.stream(lines).map(line -> line + System.lineSeparator()).collect(joining());
+	}
+
+	private static int execute(final StringWriter out, final StringWriter err, final String... args) {
+		return new CommandLine(new HistoryCommand()).setOut(new PrintWriter(out))
+				.setErr(new PrintWriter(err))
+				.execute(args);
+	}
+
+	@Test
+	@PackagePrivate
+	void testDirectory() throws IOException {
+		final Path directory = Files.createTempDirectory(getClass().getSimpleName());
+		try {
+			// Written out of order, as snapshots are ordered by their file names
+			write(directory.resolve("2026-03.csv"), "", "X");
+			write(directory.resolve("2026-01.csv"), "X", "");
+			write(directory.resolve("2026-02.csv"), "X", "X");
+			// Other files, such as notes, are skipped
+			Files.write(directory.resolve("README.txt"), "Monthly snapshots".getBytes(StandardCharsets.UTF_8));
+
+			final StringWriter out = new StringWriter();
+			assertEquals(ExitCode.OK, execute(out, new StringWriter(), directory.toString()));
+			assertEquals(lines(
+					String.format("Vergleich von \"%s\" mit \"%s\":",
+							directory.resolve("2026-01.csv"),
+							directory.resolve("2026-02.csv")),
+					"NEU: \"Müller, Anna (Lehrer)\" (K1) soll jetzt auf \"Haus 1, Tür 2\" (Z2) berechtigt werden.",
+					"1 Unterschiede gefunden.",
+					String.format("Vergleich von \"%s\" mit \"%s\":",
+							directory.resolve("2026-02.csv"),
+							directory.resolve("2026-03.csv")),
+					"ALT: \"Müller, Anna (Lehrer)\" (K1) soll nicht länger auf \"Haus 1, Tür 1\" (Z1) berechtigt sein.",
+					"1 Unterschiede gefunden."), out.toString());
+		} finally {
+			delete(directory);
+		}
+	}
+
+	@Test
+	@PackagePrivate
+	void testArchive() throws IOException {
+		final Path archive = Files.createTempFile(getClass().getSimpleName(), ".zip");
+		try {
+			try (OutputStream outputStream = Files.newOutputStream(archive);
+					ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream)) {
+				// Entries are ordered by name, even if their names are no valid paths
+				zipOutputStream.putNextEntry(new ZipEntry("2026-02\\..\\snapshot!/export.csv"));
+				zipOutputStream.write(create("X", "X"));
+				zipOutputStream.putNextEntry(new ZipEntry("2026-01.csv"));
+				zipOutputStream.write(create("X", ""));
+				zipOutputStream.putNextEntry(new ZipEntry("2026-01/"));
+				zipOutputStream.putNextEntry(new ZipEntry("README.txt"));
+				zipOutputStream.write("Monthly snapshots".getBytes(StandardCharsets.UTF_8));
+			}
+
+			final StringWriter out = new StringWriter();
+			assertEquals(ExitCode.OK, execute(out, new StringWriter(), archive.toString()));
+			assertEquals(lines(
+					String.format("Vergleich von \"%s!/2026-01.csv\" mit \"%s!/2026-02\\..\\snapshot!/export.csv\":",
+							archive,
+							archive),
+					"NEU: \"Müller, Anna (Lehrer)\" (K1) soll jetzt auf \"Haus 1, Tür 2\" (Z2) berechtigt werden.",
+					"1 Unterschiede gefunden."), out.toString());
+		} finally {
+			Files.delete(archive);
+		}
+	}
+
+	@Test
+	@PackagePrivate
+	void testMissingSnapshot() throws IOException {
+		final Path directory = Files.createTempDirectory(getClass().getSimpleName());
+		try {
+			write(directory.resolve("2026-01.csv"), "X", "");
+
+			final StringWriter out = new StringWriter();
+			final StringWriter err = new StringWriter();
+			assertEquals(ExitCode.SOFTWARE,
+					execute(out,
+							err,
+							directory.resolve("2026-01.csv").toString(),
+							directory.resolve("2026-02.csv").toString()));
+			assertEquals("", out.toString());
+			assertTrue(err.toString().contains("NoSuchFileException"), err::toString);
+		} finally {
+			delete(directory);
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package de.larssh.keycylinderroles.mapper.cli;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+import de.larssh.keycylinderroles.mapper.data.Cylinder;
+import de.larssh.keycylinderroles.mapper.data.Key;
+import de.larssh.keycylinderroles.mapper.data.KeyCylinderPermissions;
+import de.larssh.keycylinderroles.mapper.sheets.ReadOptions;
+import de.larssh.keycylinderroles.mapper.test.Fixtures;
+import de.larssh.utils.annotations.PackagePrivate;
+import lombok.NoArgsConstructor;
+
+/**
+ * {@link Inputs}
+ */
+@NoArgsConstructor
+@SuppressWarnings("java:S5786")
+public class InputsTest {
+	@Test
+	@PackagePrivate
+	void testReadArchive() throws IOException {
+		final Path archive = Files.createTempFile(getClass().getSimpleName(), ".zip");
+		try {
+			try (OutputStream outputStream = Files.newOutputStream(archive);
+					ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream)) {
+				zipOutputStream.putNextEntry(new ZipEntry("2026-09/"));
+				zipOutputStream.putNextEntry(new ZipEntry("2026-09/plan.xlsx"));
+				zipOutputStream.write(Fixtures.createExcel(12, 8));
+				zipOutputStream.putNextEntry(new ZipEntry("2026-09/export.csv"));
+				zipOutputStream.write(Fixtures.createCsv(12, 8));
+				zipOutputStream.putNextEntry(new ZipEntry("2026-09/../backup\\export!/old.csv"));
+				zipOutputStream.write(Fixtures.createCsv(4, 3));
+				zipOutputStream.putNextEntry(new ZipEntry("2026-09/notes.txt"));
+			}
+
+			// Entry names are kept as they are, even if they are no valid paths
+			assertEquals(Arrays.asList(Input.ofEntry(archive, "2026-09/../backup\\export!/old.csv"),
+					Input.ofEntry(archive, "2026-09/export.csv"),
+					Input.ofEntry(archive, "2026-09/plan.xlsx")), Inputs.listArchive(archive));
+
+			final KeyCylinderPermissions csv = Inputs.read(Paths.get(archive + "!/2026-09/export.csv"));
+			final KeyCylinderPermissions excel = Inputs.read(Paths.get(archive + "!/2026-09/plan.xlsx"));
+			final KeyCylinderPermissions old
+					= Inputs.read(Input.ofEntry(archive, "2026-09/../backup\\export!/old.csv"), ReadOptions.DEFAULT);
+			assertEquals(12, csv.getKeys().size());
+			assertEquals(12, excel.getKeys().size());
+			assertEquals(4, old.getKeys().size());
+
+			assertThrows(NoSuchFileException.class, () -> Inputs.read(Paths.get(archive + "!/2026-09")));
+		} finally {
+			Files.delete(archive);
+		}
+	}
+
+	@Test
+	@PackagePrivate
+	void testReadStandardInput() throws IOException {
+		final InputStream standardInput = System.in;
+		try {
+			System.setIn(new ByteArrayInputStream(
+					";;;Lehrer\r\n;;;Anna\r\n;;;Müller\r\n;;;\r\n;;;K1\r\nHaus 1;Z1;Tür 1;X\r\n"
+							.getBytes(StandardCharsets.UTF_8)));
+			final KeyCylinderPermissions permissions = Inputs.read(Paths.get("-"));
+
+			assertEquals(Arrays.asList("Müller, Anna (Lehrer)"),
+					permissions.getKeys().stream().map(Key::getTitle).collect(toList()));
+			assertEquals(Arrays.asList("Haus 1, Tür 1"),
+					permissions.getCylinders().stream().map(Cylinder::getTitle).collect(toList()));
+		} finally {
+			System.setIn(standardInput);
+		}
+	}
+}
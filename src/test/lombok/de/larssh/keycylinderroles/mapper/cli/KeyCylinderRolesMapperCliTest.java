@@ -0,0 +1,118 @@
+package de.larssh.keycylinderroles.mapper.cli;
+
+import static java.util.stream.Collectors.joining;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import de.larssh.utils.annotations.PackagePrivate;
+import lombok.NoArgsConstructor;
+import picocli.CommandLine;
+import picocli.CommandLine.ExitCode;
+
+/**
+ * {@link KeyCylinderRolesMapperCli}
+ */
+@NoArgsConstructor
+@SuppressWarnings({ "checkstyle:MultipleStringLiterals", "java:S5786" })
+public class KeyCylinderRolesMapperCliTest {
+	/**
+	 * Installed permissions of key {@code K1}
+	 */
+	private static final String CSV = ";;;Lehrer\r\n;;;Anna\r\n;;;Müller\r\n;;;\r\n;;;K1\r\n"
+			+ "Haus 1;Z1;Tür 1;X\r\n"
+			+ "Haus 1;Z2;Tür 2;X\r\n"
+			+ "Haus 1;Z3;Tür 3;X\r\n";
+
+	/**
+	 * Creates an Excel document planning the key of {@link #CSV} as {@code K11}
+	 * with role {@code Lehrer}, which grants {@code Z1} and {@code Z2}.
+	 *
+	 * @return XLSX file content
+	 * @throws IOException on IO error
+	 */
+	private static byte[] createExcel() throws IOException {
+		try (Workbook workbook = new XSSFWorkbook()) {
+			createSheet(workbook,
+					"Transponder",
+					new String[] { "ID", "Nachname", "Vorname", "Gruppe" },
+					new String[] { "K11", "Müller", "Anna", "Lehrer" });
+			createSheet(workbook,
+					"Transponder-Berechtigungen",
+					new String[] { "Transponder", "Rolle" },
+					new String[] { "K11", "Lehrer" });
+			createSheet(workbook,
+					"Schließzylinder",
+					new String[] { "ID", "Name", "Haus" },
+					new String[] { "Z1", "Tür 1", "Haus 1" },
+					new String[] { "Z2", "Tür 2", "Haus 1" },
+					new String[] { "Z3", "Tür 3", "Haus 1" });
+			createSheet(workbook,
+					"Rollen-Berechtigungen",
+					new String[] { "Rolle", "Schließzylinder" },
+					new String[] { "Lehrer", "Z1" },
+					new String[] { "Lehrer", "Z2" });
+
+			final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+			workbook.write(outputStream);
+			return outputStream.toByteArray();
+		}
+	}
+
+	private static void createSheet(final Workbook workbook, final String name, final String[]... rows) {
+		final Sheet sheet = workbook.createSheet(name);
+		for (int rowIndex = 0; rowIndex < rows.length; rowIndex += 1) {
+			final Row row = sheet.createRow(rowIndex);
+			for (int column = 0; column < rows[rowIndex].length; column += 1) {
+				row.createCell(column).setCellValue(rows[rowIndex][column]);
+			}
+		}
+	}
+
+	private static String lines(final String... lines) {
+		return Arrays.stream(lines).map(line -> line + System.lineSeparator()).collect(joining());
+	}
+
+	private static int execute(final StringWriter out, final String... args) {
+		return new CommandLine(new KeyCylinderRolesMapperCli()).setOut(new PrintWriter(out))
+				.setErr(new PrintWriter(new StringWriter()))
+				.execute(args);
+	}
+
+	@Test
+	@PackagePrivate
+	void testMatchIdsAndFitRoles() throws IOException {
+		final Path source = Files.createTempFile(getClass().getSimpleName(), ".csv");
+		final Path destination = Files.createTempFile(getClass().getSimpleName(), ".xlsx");
+		try {
+			Files.write(source, CSV.getBytes(StandardCharsets.UTF_8));
+			Files.write(destination, createExcel());
+
+			// The matched key is fitted to its permissions as installed as K1
+			final StringWriter out = new StringWriter();
+			assertEquals(ExitCode.OK,
+					execute(out, "--match-ids", "--fit-roles", source.toString(), destination.toString()));
+			assertEquals(lines("ID GEÄNDERT: \"Müller, Anna (Lehrer)\" (K1) hat jetzt die ID K11.",
+					"ALT: \"Müller, Anna (Lehrer)\" (K11) soll nicht länger auf \"Haus 1, Tür 3\" (Z3) berechtigt sein.",
+					"1 Unterschiede gefunden.",
+					"ROLLEN: \"Müller, Anna (Lehrer)\" (K11) passt am besten zu \"Lehrer\".",
+					"  FEHLT: \"Haus 1, Tür 3\" (Z3)"), out.toString());
+		} finally {
+			Files.delete(source);
+			Files.delete(destination);
+		}
+	}
+}
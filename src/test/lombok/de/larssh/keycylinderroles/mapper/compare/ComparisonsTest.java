@@ -0,0 +1,204 @@
+package de.larssh.keycylinderroles.mapper.compare;
+
+import static de.larssh.keycylinderroles.mapper.test.Allocations.assertBudget;
+import static java.util.Collections.emptySortedSet;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import de.larssh.keycylinderroles.mapper.data.Cylinder;
+import de.larssh.keycylinderroles.mapper.data.Key;
+import de.larssh.keycylinderroles.mapper.data.KeyCylinderPermissions;
+import de.larssh.keycylinderroles.mapper.sheets.csv.CsvFiles;
+import de.larssh.keycylinderroles.mapper.sheets.excel.ExcelFiles;
+import de.larssh.keycylinderroles.mapper.test.Fixtures;
+import de.larssh.utils.annotations.PackagePrivate;
+import lombok.NoArgsConstructor;
+
+/**
+ * {@link Comparisons}
+ */
+@NoArgsConstructor
+@SuppressWarnings({ "checkstyle:MultipleStringLiterals", "java:S5786" })
+public class ComparisonsTest {
+	/**
+	 * Maximum number of bytes allocated while comparing documents of 500 keys and
+	 * 200 cylinders
+	 *
+	 * <p>
+	 * Recorded at 1.2 MB, plus 50 percent headroom
+	 */
+	private static final long COMPARE_BUDGET = 2_000_000;
+
+	private static final Cylinder CYLINDER_1
+			= new Cylinder("Z1", "Tür 1", Optional.empty(), Optional.of("Haus 1"), false);
+
+	private static final Cylinder CYLINDER_2
+			= new Cylinder("Z2", "Tür 2", Optional.empty(), Optional.of("Haus 1"), false);
+
+	private static final Key KEY_1
+			= new Key("K1", Optional.empty(), Optional.of("Müller"), Optional.of("Anna"), Optional.empty(), false);
+
+	private static final Key KEY_2
+			= new Key("K2", Optional.empty(), Optional.of("Schmidt"), Optional.of("Bernd"), Optional.empty(), false);
+
+	private static final Key KEY_3
+			= new Key("K3", Optional.empty(), Optional.of("Weber"), Optional.of("Clara"), Optional.empty(), false);
+
+	private static KeyCylinderPermissions create(final Map<Key, Set<Cylinder>> permissions) {
+		return new KeyCylinderPermissions(permissions.keySet(), Arrays.asList(CYLINDER_1, CYLINDER_2), permissions);
+	}
+
+	private static Set<Cylinder> set(final Cylinder... cylinders) {
+		return new HashSet<>(Arrays.asList(cylinders));
+	}
+
+	@Test
+	@PackagePrivate
+	void testCompare() {
+		final Map<Key, Set<Cylinder>> sourcePermissions = new LinkedHashMap<>();
+		sourcePermissions.put(KEY_1, set(CYLINDER_1));
+		sourcePermissions.put(KEY_2, set(CYLINDER_1, CYLINDER_2));
+
+		final Map<Key, Set<Cylinder>> destinationPermissions = new LinkedHashMap<>();
+		destinationPermissions.put(KEY_1, set(CYLINDER_1, CYLINDER_2));
+		destinationPermissions.put(KEY_2, set(CYLINDER_2));
+		destinationPermissions.put(KEY_3, set(CYLINDER_1));
+
+		final List<Difference> differences = new ArrayList<>();
+		Comparisons.compare(create(sourcePermissions), create(destinationPermissions), differences::add);
+		assertEquals(Arrays.asList(new Difference(KEY_1, CYLINDER_2, true, emptySortedSet()),
+				new Difference(KEY_2, CYLINDER_1, false, emptySortedSet()),
+				new Difference(KEY_3, CYLINDER_1, true, emptySortedSet())), differences);
+	}
+
+	@Test
+	@PackagePrivate
+	void testCompareThreeWayKinds() {
+		final Map<Key, Set<Cylinder>> installedPermissions = new LinkedHashMap<>();
+		installedPermissions.put(KEY_1, set(CYLINDER_2));
+		installedPermissions.put(KEY_2, set());
+		installedPermissions.put(KEY_3, set(CYLINDER_1));
+
+		final Map<Key, Set<Cylinder>> baselinePermissions = new LinkedHashMap<>();
+		baselinePermissions.put(KEY_1, set(CYLINDER_2));
+		baselinePermissions.put(KEY_2, set(CYLINDER_1, CYLINDER_2));
+		baselinePermissions.put(KEY_3, set());
+
+		final Map<Key, Set<Cylinder>> plannedPermissions = new LinkedHashMap<>();
+		plannedPermissions.put(KEY_1, set(CYLINDER_1, CYLINDER_2));
+		plannedPermissions.put(KEY_2, set(CYLINDER_2));
+		plannedPermissions.put(KEY_3, set());
+
+		final List<ThreeWayDifference> differences = new ArrayList<>();
+		Comparisons.compare(create(installedPermissions),
+				create(baselinePermissions),
+				create(plannedPermissions),
+				differences::add);
+		assertEquals(Arrays.asList(
+				new ThreeWayDifference(KEY_1, CYLINDER_1, ThreeWayDifference.Kind.NEW_IN_PLAN, true, emptySortedSet()),
+				new ThreeWayDifference(KEY_2, CYLINDER_1, ThreeWayDifference.Kind.REVERTED, false, emptySortedSet()),
+				new ThreeWayDifference(KEY_2,
+						CYLINDER_2,
+						ThreeWayDifference.Kind.STILL_PENDING,
+						true,
+						emptySortedSet()),
+				new ThreeWayDifference(KEY_3,
+						CYLINDER_1,
+						ThreeWayDifference.Kind.INSTALLED_OUT_OF_BAND,
+						false,
+						emptySortedSet())),
+				differences);
+	}
+
+	@Test
+	@PackagePrivate
+	void testCompareAllocations() throws IOException {
+		final KeyCylinderPermissions source = read(".csv", Fixtures.createCsv(500, 200));
+		final KeyCylinderPermissions destination = read(".xlsx", Fixtures.createExcel(500, 200));
+
+		// Teachers and students share their profiles
+		assertEquals(2, source.getNumberOfProfiles());
+		assertEquals(2, destination.getNumberOfProfiles());
+
+		final AtomicInteger count = new AtomicInteger(0);
+		Comparisons.compare(source, destination, difference -> count.incrementAndGet());
+		// 333 students times 134 cylinders differ
+		assertEquals(44_622, count.get());
+
+		assertBudget(COMPARE_BUDGET,
+				() -> Comparisons.compare(source, destination, difference -> count.incrementAndGet()));
+	}
+
+	@Test
+	@PackagePrivate
+	void testCompareGrantingRoles() throws IOException {
+		final KeyCylinderPermissions source = read(".csv", Fixtures.createCsv(12, 8));
+		final KeyCylinderPermissions destination = read(".xlsx", Fixtures.createExcel(12, 8));
+
+		final AtomicInteger count = new AtomicInteger(0);
+		Comparisons.compare(source, destination, difference -> {
+			// Only the destination is based on roles, which are known to be students
+			assertEquals(difference.isAdded() ? Collections.singleton("Schüler") : Collections.emptySet(),
+					difference.getRoles());
+			count.incrementAndGet();
+		});
+		assertTrue(count.get() > 0);
+	}
+
+	@Test
+	@PackagePrivate
+	void testCompareThreeWay() throws IOException {
+		final KeyCylinderPermissions installed = read(".csv", Fixtures.createCsv(12, 8));
+		final KeyCylinderPermissions planned = read(".xlsx", Fixtures.createExcel(12, 8));
+
+		final AtomicInteger count = new AtomicInteger(0);
+		Comparisons.compare(installed, planned, difference -> count.incrementAndGet());
+
+		// Installed state matches the baseline, therefore the plan changed only
+		final Map<ThreeWayDifference.Kind, Integer> kinds = new EnumMap<>(ThreeWayDifference.Kind.class);
+		Comparisons.compare(installed,
+				installed,
+				planned,
+				difference -> kinds.merge(difference.getKind(), 1, Integer::sum));
+		assertEquals(Collections.singletonMap(ThreeWayDifference.Kind.NEW_IN_PLAN, count.get()), kinds);
+
+		// Plan did not change, therefore the installed state is pending or unplanned
+		kinds.clear();
+		Comparisons.compare(installed, planned, planned, difference -> {
+			assertEquals(difference.isPlanned()
+					? ThreeWayDifference.Kind.STILL_PENDING
+					: ThreeWayDifference.Kind.INSTALLED_OUT_OF_BAND, difference.getKind());
+			kinds.merge(difference.getKind(), 1, Integer::sum);
+		});
+		assertEquals(count.get(), kinds.values().stream().mapToInt(Integer::intValue).sum());
+
+		// Plan was reverted to the installed state
+		kinds.clear();
+		Comparisons.compare(installed,
+				planned,
+				installed,
+				difference -> kinds.merge(difference.getKind(), 1, Integer::sum));
+		assertEquals(Collections.singletonMap(ThreeWayDifference.Kind.REVERTED, count.get()), kinds);
+	}
+
+	private static KeyCylinderPermissions read(final String suffix, final byte[] content) throws IOException {
+		final ByteBuffer buffer = ByteBuffer.wrap(content);
+		return ".csv".equals(suffix) ? CsvFiles.read(buffer) : ExcelFiles.read(buffer);
+	}
+}
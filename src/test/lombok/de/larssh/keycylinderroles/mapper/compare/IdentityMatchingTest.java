@@ -0,0 +1,134 @@
+package de.larssh.keycylinderroles.mapper.compare;
+
+import static java.util.Collections.emptySortedSet;
+import static java.util.Collections.singletonMap;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import de.larssh.keycylinderroles.mapper.data.Cylinder;
+import de.larssh.keycylinderroles.mapper.data.Key;
+import de.larssh.keycylinderroles.mapper.data.KeyCylinderPermissions;
+import de.larssh.utils.annotations.PackagePrivate;
+import lombok.NoArgsConstructor;
+
+/**
+ * {@link IdentityMatching}
+ */
+@NoArgsConstructor
+@SuppressWarnings({ "checkstyle:MultipleStringLiterals", "java:S5786" })
+public class IdentityMatchingTest {
+	private static final Cylinder CYLINDER_1 = createCylinder("Z1", "Tür 1");
+
+	private static final Cylinder CYLINDER_2 = createCylinder("Z2", "Tür 2");
+
+	private static final Cylinder CYLINDER_3 = createCylinder("Z3", "Tür 3");
+
+	private static final Cylinder CYLINDER_3_RENUMBERED = createCylinder("Z33", "Tür 3");
+
+	private static final Key KEY_1 = createKey("K1", "Müller", "Anna");
+
+	private static final Key KEY_2 = createKey("K2", "Schmidt", "Bernd");
+
+	private static final Key KEY_2_RENUMBERED = createKey("K22", "Schmidt", "Bernd");
+
+	private static final Key KEY_3 = createKey("K3", "Weber", "Clara");
+
+	private static final Key KEY_4 = createKey("K4", "Zimmermann", "Dora");
+
+	private static Cylinder createCylinder(final String id, final String name) {
+		return createCylinder(id, name, "Haus 1");
+	}
+
+	private static Cylinder createCylinder(final String id, final String name, final String building) {
+		return new Cylinder(id, name, Optional.empty(), Optional.of(building), false);
+	}
+
+	private static Key createKey(final String id, final String lastName, final String firstName) {
+		return new Key(id, Optional.empty(), Optional.of(lastName), Optional.of(firstName), Optional.empty(), false);
+	}
+
+	private static KeyCylinderPermissions create(final Map<Key, Set<Cylinder>> permissions,
+			final Cylinder... cylinders) {
+		return new KeyCylinderPermissions(permissions.keySet(), Arrays.asList(cylinders), permissions);
+	}
+
+	private static Set<Cylinder> set(final Cylinder... cylinders) {
+		return new HashSet<>(Arrays.asList(cylinders));
+	}
+
+	@Test
+	@PackagePrivate
+	void testMatch() {
+		final Map<Key, Set<Cylinder>> sourcePermissions = new LinkedHashMap<>();
+		sourcePermissions.put(KEY_1, set(CYLINDER_1));
+		sourcePermissions.put(KEY_2, set(CYLINDER_1, CYLINDER_2, CYLINDER_3));
+		sourcePermissions.put(KEY_3, set(CYLINDER_2, CYLINDER_3));
+		final KeyCylinderPermissions source = create(sourcePermissions, CYLINDER_1, CYLINDER_2, CYLINDER_3);
+
+		// Keys with similar permissions but different titles are not matched
+		final Map<Key, Set<Cylinder>> destinationPermissions = new LinkedHashMap<>();
+		destinationPermissions.put(KEY_1, set(CYLINDER_1));
+		destinationPermissions.put(KEY_2_RENUMBERED, set(CYLINDER_1, CYLINDER_2, CYLINDER_3_RENUMBERED));
+		destinationPermissions.put(KEY_4, set(CYLINDER_2));
+		final KeyCylinderPermissions destination
+				= create(destinationPermissions, CYLINDER_1, CYLINDER_2, CYLINDER_3_RENUMBERED);
+
+		final IdentityMatches matches = IdentityMatching.match(source, destination);
+		assertEquals(singletonMap(KEY_2, KEY_2_RENUMBERED), matches.getKeys());
+		assertEquals(singletonMap(CYLINDER_3, CYLINDER_3_RENUMBERED), matches.getCylinders());
+
+		final List<Difference> differences = new ArrayList<>();
+		Comparisons.compare(source, destination, matches, differences::add);
+		assertEquals(Arrays.asList(new Difference(KEY_3, CYLINDER_2, false, emptySortedSet()),
+				new Difference(KEY_3, CYLINDER_3_RENUMBERED, false, emptySortedSet()),
+				new Difference(KEY_4, CYLINDER_2, true, emptySortedSet())), differences);
+	}
+
+	@Test
+	@PackagePrivate
+	void testMatchSimilarNames() {
+		// Rooms of different numbers are not matched, even if their names are similar
+		final Cylinder room101 = createCylinder("Z101", "Raum 101");
+		final Cylinder room105 = createCylinder("Z105", "Raum 105");
+		final KeyCylinderPermissions source
+				= create(singletonMap(KEY_1, set(CYLINDER_1, room101)), CYLINDER_1, room101);
+		final KeyCylinderPermissions destination
+				= create(singletonMap(KEY_1, set(CYLINDER_1, room105)), CYLINDER_1, room105);
+		assertEquals(IdentityMatches.NONE, IdentityMatching.match(source, destination));
+
+		// Cylinders of different buildings are not matched, even if their names equal
+		final Cylinder door3 = createCylinder("Z33", "Tür 3", "Haus 2");
+		assertEquals(IdentityMatches.NONE,
+				IdentityMatching.match(create(singletonMap(KEY_1, set(CYLINDER_1, CYLINDER_3)), CYLINDER_1, CYLINDER_3),
+						create(singletonMap(KEY_1, set(CYLINDER_1, door3)), CYLINDER_1, door3)));
+	}
+
+	@Test
+	@PackagePrivate
+	void testMatchAmbiguous() {
+		final Map<Key, Set<Cylinder>> sourcePermissions = new LinkedHashMap<>();
+		sourcePermissions.put(KEY_1, set(CYLINDER_1));
+		sourcePermissions.put(KEY_2, set(CYLINDER_1, CYLINDER_2));
+		final KeyCylinderPermissions source = create(sourcePermissions, CYLINDER_1, CYLINDER_2);
+
+		// Two equally similar keys could be the renumbered one, therefore neither is
+		// matched
+		final Map<Key, Set<Cylinder>> destinationPermissions = new LinkedHashMap<>();
+		destinationPermissions.put(KEY_1, set(CYLINDER_1));
+		destinationPermissions.put(KEY_2_RENUMBERED, set(CYLINDER_1, CYLINDER_2));
+		destinationPermissions.put(createKey("K23", "Schmidt", "Bernd"), set(CYLINDER_1, CYLINDER_2));
+		final KeyCylinderPermissions destination = create(destinationPermissions, CYLINDER_1, CYLINDER_2);
+
+		assertEquals(IdentityMatches.NONE, IdentityMatching.match(source, destination));
+	}
+}
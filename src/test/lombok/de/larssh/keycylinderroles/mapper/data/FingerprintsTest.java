@@ -0,0 +1,74 @@
+package de.larssh.keycylinderroles.mapper.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import de.larssh.utils.annotations.PackagePrivate;
+import lombok.NoArgsConstructor;
+
+/**
+ * {@link Fingerprints}
+ */
+@NoArgsConstructor
+@SuppressWarnings({ "checkstyle:MultipleStringLiterals", "java:S5786" })
+public class FingerprintsTest {
+	private static final Key KEY_1
+			= new Key("K1", Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), false);
+
+	private static final Key KEY_2
+			= new Key("K2", Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), false);
+
+	private static final Cylinder CYLINDER_1
+			= new Cylinder("Z1", "Tür 1", Optional.empty(), Optional.of("Haus 1"), false);
+
+	private static final Cylinder CYLINDER_2
+			= new Cylinder("Z2", "Tür 2", Optional.empty(), Optional.of("Haus 2"), false);
+
+	private static KeyCylinderPermissions create(final boolean reversed, final Cylinder... cylindersOfKey2) {
+		final Map<Key, Set<Cylinder>> permissions = new HashMap<>();
+		permissions.put(KEY_1, new HashSet<>(Arrays.asList(CYLINDER_1, CYLINDER_2)));
+		permissions.put(KEY_2, new HashSet<>(Arrays.asList(cylindersOfKey2)));
+		return reversed
+				? new KeyCylinderPermissions(Arrays.asList(KEY_2, KEY_1),
+						Arrays.asList(CYLINDER_2, CYLINDER_1),
+						permissions)
+				: new KeyCylinderPermissions(Arrays.asList(KEY_1, KEY_2),
+						Arrays.asList(CYLINDER_1, CYLINDER_2),
+						permissions);
+	}
+
+	@Test
+	@PackagePrivate
+	void testEqual() {
+		final Fingerprints first = create(false, CYLINDER_2).getFingerprints();
+		final Fingerprints second = create(true, CYLINDER_2).getFingerprints();
+
+		assertEquals(first.getDocument(), second.getDocument());
+		assertEquals(first.getGroup("Haus 1"), second.getGroup("Haus 1"));
+		assertEquals(first.getGroup("Haus 2"), second.getGroup("Haus 2"));
+		assertEquals(first.getKey(KEY_1), second.getKey(KEY_1));
+		assertEquals(first.getKey(KEY_2), second.getKey(KEY_2));
+	}
+
+	@Test
+	@PackagePrivate
+	void testLocalize() {
+		final Fingerprints first = create(false, CYLINDER_2).getFingerprints();
+		final Fingerprints second = create(false, CYLINDER_1, CYLINDER_2).getFingerprints();
+
+		assertNotEquals(first.getDocument(), second.getDocument());
+		assertNotEquals(first.getGroup("Haus 1"), second.getGroup("Haus 1"));
+		assertEquals(first.getGroup("Haus 2"), second.getGroup("Haus 2"));
+		assertEquals(first.getKey(KEY_1), second.getKey(KEY_1));
+		assertNotEquals(first.getKey(KEY_2), second.getKey(KEY_2));
+	}
+}
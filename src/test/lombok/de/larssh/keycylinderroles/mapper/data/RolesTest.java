@@ -0,0 +1,127 @@
+package de.larssh.keycylinderroles.mapper.data;
+
+import static java.util.Collections.singleton;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+import de.larssh.utils.annotations.PackagePrivate;
+import lombok.NoArgsConstructor;
+
+/**
+ * {@link Roles}
+ */
+@NoArgsConstructor
+@SuppressWarnings({ "checkstyle:MultipleStringLiterals", "java:S5786" })
+public class RolesTest {
+	private static final Cylinder CYLINDER_1
+			= new Cylinder("Z1", "Tür 1", Optional.empty(), Optional.of("Haus 1"), false);
+
+	private static final Cylinder CYLINDER_2
+			= new Cylinder("Z2", "Tür 2", Optional.empty(), Optional.of("Haus 1"), false);
+
+	private static final Cylinder CYLINDER_3
+			= new Cylinder("Z3", "Tür 3", Optional.empty(), Optional.of("Haus 2"), false);
+
+	private static Roles create(final Map<String, Set<String>> includedRoles) {
+		final Map<String, Set<Cylinder>> directCylinders = new HashMap<>();
+		directCylinders.put("Schüler", singleton(CYLINDER_1));
+		directCylinders.put("Lehrer", singleton(CYLINDER_2));
+		directCylinders.put("Hausmeister", singleton(CYLINDER_3));
+		return new Roles(Arrays.asList(CYLINDER_1, CYLINDER_2, CYLINDER_3), directCylinders, includedRoles);
+	}
+
+	private static Set<Cylinder> set(final Cylinder... cylinders) {
+		return new HashSet<>(Arrays.asList(cylinders));
+	}
+
+	@Test
+	@PackagePrivate
+	void testNested() {
+		final Map<String, Set<String>> includedRoles = new HashMap<>();
+		includedRoles.put("Lehrer", singleton("Schüler"));
+		includedRoles.put("Schulleitung", singleton("Lehrer"));
+		final Roles roles = create(includedRoles);
+
+		assertEquals(set(CYLINDER_1), roles.toCylinders(roles.getCylinderBits("Schüler")));
+		assertEquals(set(CYLINDER_1, CYLINDER_2), roles.toCylinders(roles.getCylinderBits("Lehrer")));
+		assertEquals(set(CYLINDER_1, CYLINDER_2), roles.toCylinders(roles.getCylinderBits("Schulleitung")));
+		assertEquals(set(CYLINDER_1, CYLINDER_2, CYLINDER_3),
+				roles.toCylinders(roles.getCylinderBits(Arrays.asList("Schulleitung", "Hausmeister"))));
+
+		assertEquals(set(), roles.getDirectCylinders("Schulleitung"));
+		assertEquals(singleton("Lehrer"), roles.getIncludedRoles("Schulleitung"));
+		assertEquals(new TreeSet<>(Arrays.asList("Lehrer", "Schulleitung", "Schüler")),
+				roles.getGrantingRoles(Arrays.asList("Schüler", "Lehrer", "Schulleitung"), CYLINDER_1));
+		assertEquals(new TreeSet<>(Arrays.asList("Lehrer", "Schulleitung")),
+				roles.getGrantingRoles(Arrays.asList("Schüler", "Lehrer", "Schulleitung"), CYLINDER_2));
+	}
+
+	@Test
+	@PackagePrivate
+	void testTransitive() {
+		final Map<String, Set<String>> includedRoles = new HashMap<>();
+		includedRoles.put("Hausmeister", singleton("Lehrer"));
+		includedRoles.put("Lehrer", singleton("Schüler"));
+		final Roles roles = create(includedRoles);
+
+		assertEquals(set(CYLINDER_1, CYLINDER_2, CYLINDER_3), roles.toCylinders(roles.getCylinderBits("Hausmeister")));
+		assertEquals(new TreeSet<>(Arrays.asList("Hausmeister")),
+				roles.getGrantingRoles(singleton("Hausmeister"), CYLINDER_1));
+	}
+
+	@Test
+	@PackagePrivate
+	void testDeep() {
+		// Deep enough to overflow the call stack if included roles were resolved
+		// recursively
+		final int depth = 100_000;
+		final Map<String, Set<String>> includedRoles = new HashMap<>();
+		includedRoles.put("Rolle 1", singleton("Schüler"));
+		for (int index = 2; index <= depth; index += 1) {
+			includedRoles.put("Rolle " + index, singleton("Rolle " + (index - 1)));
+		}
+		final Roles roles = create(includedRoles);
+
+		assertEquals(set(CYLINDER_1), roles.toCylinders(roles.getCylinderBits("Rolle " + depth)));
+	}
+
+	@Test
+	@PackagePrivate
+	void testCycle() {
+		final Map<String, Set<String>> includedRoles = new HashMap<>();
+		includedRoles.put("Schüler", singleton("Hausmeister"));
+		includedRoles.put("Hausmeister", singleton("Lehrer"));
+		includedRoles.put("Lehrer", singleton("Schüler"));
+
+		// The cycle is reported starting at the first role visited, which depends on
+		// the iteration order of roles.
+		final String message = assertThrows(IllegalArgumentException.class, () -> create(includedRoles)).getMessage();
+		assertTrue(Arrays
+				.asList("Roles include each other cyclically: Lehrer -> Schüler -> Hausmeister -> Lehrer",
+						"Roles include each other cyclically: Schüler -> Hausmeister -> Lehrer -> Schüler",
+						"Roles include each other cyclically: Hausmeister -> Lehrer -> Schüler -> Hausmeister")
+				.contains(message), message);
+	}
+
+	@Test
+	@PackagePrivate
+	void testUnknownIncludedRole() {
+		final Map<String, Set<String>> includedRoles = new HashMap<>();
+		includedRoles.put("Lehrer", new HashSet<>(Arrays.asList("Schüler", "Referendar")));
+
+		final IllegalArgumentException exception
+				= assertThrows(IllegalArgumentException.class, () -> create(includedRoles));
+		assertEquals("Role \"Lehrer\" includes unknown role \"Referendar\".", exception.getMessage());
+	}
+}
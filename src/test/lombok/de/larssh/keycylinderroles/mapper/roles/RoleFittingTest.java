@@ -0,0 +1,56 @@
+package de.larssh.keycylinderroles.mapper.roles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import de.larssh.keycylinderroles.mapper.data.Cylinder;
+import de.larssh.keycylinderroles.mapper.data.Key;
+import de.larssh.keycylinderroles.mapper.data.KeyCylinderPermissions;
+import de.larssh.keycylinderroles.mapper.sheets.csv.CsvFiles;
+import de.larssh.keycylinderroles.mapper.test.Fixtures;
+import de.larssh.utils.annotations.PackagePrivate;
+import lombok.NoArgsConstructor;
+
+/**
+ * {@link RoleFitting}
+ */
+@NoArgsConstructor
+@SuppressWarnings("java:S5786")
+public class RoleFittingTest {
+	@Test
+	@PackagePrivate
+	void testFit() throws IOException {
+		final KeyCylinderPermissions permissions = CsvFiles.read(ByteBuffer.wrap(Fixtures.createCsv(60, 30)));
+		final RoleFitting fitting = RoleFitting.forCatalogue(RoleMining.mine(permissions).getRoles());
+
+		// Mined roles fit every key exactly
+		final Map<Key, Set<Cylinder>> targets = new LinkedHashMap<>();
+		for (final Key key : permissions.getKeys()) {
+			targets.put(key, permissions.getPermissions(key));
+		}
+		final Map<Key, RoleFit> fits = fitting.fit(targets);
+		assertEquals(targets.keySet(), fits.keySet());
+		fits.values().forEach(fit -> assertTrue(fit.isExact()));
+
+		// A teacher missing one cylinder still fits the teacher role best
+		final Key teacher = permissions.getKeys().iterator().next();
+		final Set<Cylinder> target = new LinkedHashSet<>(permissions.getPermissions(teacher));
+		final Cylinder removed = target.iterator().next();
+		target.remove(removed);
+
+		final RoleFit fit = fitting.fit(target);
+		assertEquals(fits.get(teacher).getRoles(), fit.getRoles());
+		assertTrue(fit.getMissing().isEmpty());
+		assertEquals(1, fit.getExtra().size());
+		assertTrue(fit.getExtra().contains(removed));
+	}
+}
@@ -0,0 +1,65 @@
+package de.larssh.keycylinderroles.mapper.roles;
+
+import static java.util.Collections.singleton;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import de.larssh.keycylinderroles.mapper.compare.Comparisons;
+import de.larssh.keycylinderroles.mapper.data.Cylinder;
+import de.larssh.keycylinderroles.mapper.data.Key;
+import de.larssh.keycylinderroles.mapper.data.KeyCylinderPermissions;
+import de.larssh.keycylinderroles.mapper.data.Roles;
+import de.larssh.keycylinderroles.mapper.sheets.csv.CsvFiles;
+import de.larssh.keycylinderroles.mapper.sheets.excel.ExcelFiles;
+import de.larssh.keycylinderroles.mapper.test.Fixtures;
+import de.larssh.utils.annotations.PackagePrivate;
+import lombok.NoArgsConstructor;
+
+/**
+ * {@link RoleMining}
+ */
+@NoArgsConstructor
+@SuppressWarnings("java:S5786")
+public class RoleMiningTest {
+	@Test
+	@PackagePrivate
+	void testMine() throws IOException {
+		final KeyCylinderPermissions permissions = CsvFiles.read(ByteBuffer.wrap(Fixtures.createCsv(60, 30)));
+
+		final MinedRoles minedRoles = RoleMining.mine(permissions);
+		// The full teacher profile newly covers the most permissions, followed by the
+		// full student profile. Their intersection covers less than the latter, as it
+		// is part of the teacher role already.
+		final Roles roles = minedRoles.getRoles();
+		assertEquals(new LinkedHashSet<>(Arrays.asList("Rolle 1", "Rolle 2")), roles.getNames());
+		assertEquals(IntStream.range(0, 15).mapToObj(cylinder -> "Z" + cylinder * 2).collect(toList()),
+				roles.getDirectCylinders("Rolle 1").stream().map(Cylinder::getId).collect(toList()));
+		assertEquals(IntStream.range(0, 10).mapToObj(cylinder -> "Z" + cylinder * 3).collect(toList()),
+				roles.getDirectCylinders("Rolle 2").stream().map(Cylinder::getId).collect(toList()));
+
+		assertEquals(60, minedRoles.getKeyRoles().size());
+		for (final Key key : permissions.getKeys()) {
+			// Every third key is a teacher
+			assertEquals(singleton(Integer.parseInt(key.getId().substring(1)) % 3 == 0 ? "Rolle 1" : "Rolle 2"),
+					minedRoles.getKeyRoles().get(key));
+		}
+
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		ExcelFiles.write(outputStream, permissions.getKeys(), minedRoles.getRoles(), minedRoles.getKeyRoles());
+		final KeyCylinderPermissions written = ExcelFiles.read(ByteBuffer.wrap(outputStream.toByteArray()));
+
+		final AtomicInteger count = new AtomicInteger(0);
+		Comparisons.compare(permissions, written, difference -> count.incrementAndGet());
+		assertEquals(0, count.get());
+	}
+}
@@ -0,0 +1,75 @@
+package de.larssh.keycylinderroles.mapper.sheets;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import de.larssh.keycylinderroles.mapper.data.Key;
+import de.larssh.keycylinderroles.mapper.data.KeyCylinderPermissions;
+import de.larssh.keycylinderroles.mapper.test.Fixtures;
+import de.larssh.utils.annotations.PackagePrivate;
+import lombok.NoArgsConstructor;
+
+/**
+ * {@link Documents}
+ */
+@NoArgsConstructor
+@SuppressWarnings("java:S5786")
+public class DocumentsTest {
+	/**
+	 * Creates an input stream not supporting mark and reset, like the standard
+	 * input or entries of ZIP archives.
+	 *
+	 * @param content the content to read
+	 * @return an input stream not supporting mark and reset
+	 */
+	private static InputStream newUnmarkableInputStream(final byte[] content) {
+		return new FilterInputStream(new ByteArrayInputStream(content)) {
+			@Override
+			public boolean markSupported() {
+				return false;
+			}
+		};
+	}
+
+	@Test
+	@PackagePrivate
+	void testReadInputStream() throws IOException {
+		final KeyCylinderPermissions csv = Documents.read(newUnmarkableInputStream(Fixtures.createCsv(4, 3)));
+		final KeyCylinderPermissions excel = Documents.read(newUnmarkableInputStream(Fixtures.createExcel(4, 3)));
+
+		assertEquals(Arrays.asList("K0", "K1", "K2", "K3"), csv.getKeys().stream().map(Key::getId).collect(toList()));
+		assertEquals(Arrays.asList("K0", "K1", "K2", "K3"), excel.getKeys().stream().map(Key::getId).collect(toList()));
+		assertEquals(Arrays.asList("Nachname 0, Vorname 0 (Lehrer)", "Nachname 1, Vorname 1 (Schüler)"),
+				csv.getKeys().stream().limit(2).map(Key::getTitle).collect(toList()));
+		assertEquals(3, csv.getCylinders().size());
+		assertEquals(3, excel.getCylinders().size());
+	}
+
+	@Test
+	@PackagePrivate
+	void testReadPath() throws IOException {
+		final Path path = Files.createTempFile(getClass().getSimpleName(), "");
+		try {
+			// Empty files are streamed instead of being mapped
+			assertEquals(0, Documents.read(path).getKeys().size());
+
+			Files.write(path, Fixtures.createCsv(4, 3));
+			assertEquals(4, Documents.read(path).getKeys().size());
+
+			Files.write(path, Fixtures.createExcel(4, 3));
+			assertEquals(4, Documents.read(path).getKeys().size());
+		} finally {
+			Files.delete(path);
+		}
+	}
+}
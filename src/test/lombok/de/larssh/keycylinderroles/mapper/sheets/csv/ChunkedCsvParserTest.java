@@ -0,0 +1,61 @@
+package de.larssh.keycylinderroles.mapper.sheets.csv;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import de.larssh.utils.annotations.PackagePrivate;
+import de.larssh.utils.text.Csv;
+import lombok.NoArgsConstructor;
+
+/**
+ * {@link ChunkedCsvParser}
+ */
+@NoArgsConstructor
+@SuppressWarnings("java:S5786")
+public class ChunkedCsvParserTest {
+	private static final String CONTENT = "a;b;c\n"
+			+ "\"x\n1\";\"y;\"\"\n2\";z\n"
+			+ "a\"b;\"c\"  ;\"d\"e\nf\"\n"
+			+ "\n"
+			+ "ä;\"ö\r\nü\";ß\r\n"
+			+ "1;2;3\n";
+
+	private static void assertChunked(final Charset charset) throws IOException {
+		final List<List<String>> expected = toLists(Csv.parse(new StringReader(CONTENT), ';', '"'));
+		for (int numberOfChunks = 1; numberOfChunks <= CONTENT.length(); numberOfChunks += 1) {
+			final ByteBuffer content = ByteBuffer.wrap(CONTENT.getBytes(charset));
+			final List<List<String>> actual
+					= toLists(ChunkedCsvParser.parse(content, charset, ';', '"', numberOfChunks));
+
+			assertEquals(expected, actual, Integer.toString(numberOfChunks));
+			assertEquals(0, content.position());
+		}
+	}
+
+	// Csv rows reference their Csv, which is why they cannot be compared directly
+	private static List<List<String>> toLists(final List<? extends List<String>> csv) {
+		return csv.stream().map(ArrayList::new).collect(toList());
+	}
+
+	@Test
+	@PackagePrivate
+	void testParseUtf8() throws IOException {
+		assertChunked(StandardCharsets.UTF_8);
+	}
+
+	@Test
+	@PackagePrivate
+	void testParseUtf16() throws IOException {
+		assertChunked(StandardCharsets.UTF_16LE);
+	}
+}
@@ -1,7 +1,30 @@
 package de.larssh.keycylinderroles.mapper.sheets.csv;
 
+import static de.larssh.keycylinderroles.mapper.test.Allocations.assertBudget;
+import static java.util.Collections.singleton;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+
 import org.junit.jupiter.api.Test;
 
+import de.larssh.keycylinderroles.mapper.data.Cylinder;
+import de.larssh.keycylinderroles.mapper.data.Key;
+import de.larssh.keycylinderroles.mapper.data.KeyCylinderPermissions;
+import de.larssh.keycylinderroles.mapper.sheets.ReadOptions;
+import de.larssh.keycylinderroles.mapper.sheets.UnsupportedFilterException;
+import de.larssh.keycylinderroles.mapper.test.Fixtures;
 import de.larssh.utils.annotations.PackagePrivate;
 import lombok.NoArgsConstructor;
 
@@ -9,11 +32,112 @@ import lombok.NoArgsConstructor;
  * {@link CsvFiles}
  */
 @NoArgsConstructor
-@SuppressWarnings("java:S5786")
+@SuppressWarnings({ "checkstyle:MultipleStringLiterals", "java:S5786" })
 public class CsvFilesTest {
+	/**
+	 * Maximum number of bytes allocated while reading a CSV file of 500 keys and
+	 * 200 cylinders
+	 *
+	 * <p>
+	 * Recorded at 18.6 MB, plus 50 percent headroom
+	 */
+	private static final long READ_BUDGET = 28_000_000;
+
+	private static byte[] concat(final byte[] first, final byte[] second) {
+		final byte[] result = Arrays.copyOf(first, first.length + second.length);
+		System.arraycopy(second, 0, result, first.length, second.length);
+		return result;
+	}
+
 	@Test
 	@PackagePrivate
 	void test() {
 		// TODO
 	}
+
+	@Test
+	@PackagePrivate
+	void testRead() throws IOException {
+		final String content = ";;;Lehrer;Schüler\r\n"
+				+ ";;;Anna;Bernd\r\n"
+				+ ";;;Müller;Schmidt\r\n"
+				+ ";;;;\r\n"
+				+ ";;;K1;K2\r\n"
+				+ "Haus 1;Z1;Tür 1;X;X\r\n"
+				+ "Haus 2;Z2;Tür 2;X;\r\n";
+		final KeyCylinderPermissions permissions
+				= CsvFiles.read(ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)));
+
+		final List<Key> keys = new ArrayList<>(permissions.getKeys());
+		final List<Cylinder> cylinders = new ArrayList<>(permissions.getCylinders());
+		assertEquals(Arrays.asList("K1", "K2"), keys.stream().map(Key::getId).collect(toList()));
+		assertEquals(Arrays.asList("Müller, Anna (Lehrer)", "Schmidt, Bernd (Schüler)"),
+				keys.stream().map(Key::getTitle).collect(toList()));
+		assertEquals(Arrays.asList("Z1", "Z2"), cylinders.stream().map(Cylinder::getId).collect(toList()));
+		assertEquals(Arrays.asList("Haus 1, Tür 1", "Haus 2, Tür 2"),
+				cylinders.stream().map(Cylinder::getTitle).collect(toList()));
+		assertEquals(new HashSet<>(cylinders), permissions.getPermissions(keys.get(0)));
+		assertEquals(singleton(cylinders.get(0)), permissions.getPermissions(keys.get(1)));
+	}
+
+	@Test
+	@PackagePrivate
+	void testReadCharsets() throws IOException {
+		final String content = ";;;Lehrer\r\n;;;Anna\r\n;;;Müller\r\n;;;\r\n;;;K1\r\nHaus 1;Z1;Tür 1;X\r\n";
+		final byte[] utf8 = content.getBytes(StandardCharsets.UTF_8);
+		final byte[] utf16 = content.getBytes(StandardCharsets.UTF_16LE);
+
+		// Without byte order mark, UTF-16 LE is detected by its zero bytes and UTF-8
+		// is assumed otherwise.
+		for (final byte[] bytes : Arrays.asList(utf8,
+				utf16,
+				concat(new byte[] { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF }, utf8),
+				concat(new byte[] { (byte) 0xFF, (byte) 0xFE }, utf16))) {
+			final KeyCylinderPermissions permissions = CsvFiles.read(ByteBuffer.wrap(bytes));
+			assertEquals(Arrays.asList("Müller, Anna (Lehrer)"),
+					permissions.getKeys().stream().map(Key::getTitle).collect(toList()));
+			assertEquals(Arrays.asList("Haus 1, Tür 1"),
+					permissions.getCylinders().stream().map(Cylinder::getTitle).collect(toList()));
+		}
+
+		final KeyCylinderPermissions empty = CsvFiles.read(ByteBuffer.wrap(new byte[0]));
+		assertEquals(0, empty.getKeys().size());
+		assertEquals(0, empty.getCylinders().size());
+	}
+
+	@Test
+	@PackagePrivate
+	void testReadAllocations() throws IOException {
+		final Path path = Files.createTempFile(getClass().getSimpleName(), ".csv");
+		try {
+			Files.write(path, Fixtures.createCsv(500, 200));
+			assertBudget(READ_BUDGET, () -> CsvFiles.read(path));
+		} finally {
+			Files.delete(path);
+		}
+	}
+
+	@Test
+	@PackagePrivate
+	void testReadFiltered() throws IOException {
+		final ReadOptions options
+				= ReadOptions.DEFAULT.withBuilding(Optional.of("haus 1")).withGroup(Optional.of("Lehrer"));
+		final KeyCylinderPermissions permissions = CsvFiles.read(ByteBuffer.wrap(Fixtures.createCsv(12, 8)), options);
+
+		// Every third key is a teacher, every fourth cylinder is located in building 1
+		assertEquals(4, permissions.getKeys().size());
+		assertEquals(2, permissions.getCylinders().size());
+		permissions.getKeys().forEach(key -> assertEquals(Optional.of("Lehrer"), key.getGroup()));
+		permissions.getCylinders().forEach(cylinder -> assertEquals(Optional.of("Haus 1"), cylinder.getBuilding()));
+	}
+
+	@Test
+	@PackagePrivate
+	void testReadFilteredUnsupported() {
+		final ByteBuffer buffer = ByteBuffer.wrap(Fixtures.createCsv(12, 8));
+		final UnsupportedFilterException exception = assertThrows(UnsupportedFilterException.class,
+				() -> CsvFiles.read(buffer, ReadOptions.DEFAULT.withSection(Optional.of("Bereich A"))));
+		assertEquals("The CSV file does not contain sections, therefore it cannot be filtered by sections.",
+				exception.getMessage());
+	}
 }
@@ -0,0 +1,190 @@
+package de.larssh.keycylinderroles.mapper.sheets.excel;
+
+import static de.larssh.keycylinderroles.mapper.test.Allocations.assertBudget;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Optional;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import de.larssh.keycylinderroles.mapper.data.Cylinder;
+import de.larssh.keycylinderroles.mapper.data.Key;
+import de.larssh.keycylinderroles.mapper.data.KeyCylinderPermissions;
+import de.larssh.keycylinderroles.mapper.sheets.ReadOptions;
+import de.larssh.keycylinderroles.mapper.sheets.UnsupportedFilterException;
+import de.larssh.keycylinderroles.mapper.test.Fixtures;
+import de.larssh.utils.annotations.PackagePrivate;
+import lombok.NoArgsConstructor;
+
+/**
+ * {@link ExcelFiles}
+ */
+@NoArgsConstructor
+@SuppressWarnings({ "checkstyle:MultipleStringLiterals", "java:S5786" })
+public class ExcelFilesTest {
+	/**
+	 * Maximum number of bytes allocated while reading an Excel document of 500 keys
+	 * and 200 cylinders
+	 *
+	 * <p>
+	 * Recorded at 35.9 MB, plus 50 percent headroom
+	 */
+	private static final long READ_BUDGET = 54_000_000;
+
+	private static void createRow(final Sheet sheet, final String... values) {
+		final Row row = sheet.createRow(sheet.getPhysicalNumberOfRows());
+		for (int column = 0; column < values.length; column += 1) {
+			row.createCell(column).setCellValue(values[column]);
+		}
+	}
+
+	@Test
+	@PackagePrivate
+	void testReadAllocations() throws IOException {
+		final Path path = Files.createTempFile(getClass().getSimpleName(), ".xlsx");
+		try {
+			Files.write(path, Fixtures.createExcel(500, 200));
+			assertBudget(READ_BUDGET, () -> ExcelFiles.read(path));
+		} finally {
+			Files.delete(path);
+		}
+	}
+
+	@Test
+	@PackagePrivate
+	void testReadMissingRole() throws IOException {
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		try (Workbook workbook = new XSSFWorkbook()) {
+			Sheet sheet = workbook.createSheet("Transponder");
+			createRow(sheet, "ID", "Name", "Nachname", "Vorname", "Status");
+			createRow(sheet, "K1", "", "Müller", "Anna");
+
+			sheet = workbook.createSheet("Transponder-Berechtigungen");
+			createRow(sheet, "Transponder", "Rolle");
+			createRow(sheet, "K1", "Lehrer");
+
+			sheet = workbook.createSheet("Schließzylinder");
+			createRow(sheet, "ID", "Name", "Bereich", "Haus", "Status");
+			createRow(sheet, "Z1", "Tür 1", "", "Haus 1");
+
+			sheet = workbook.createSheet("Rollen-Berechtigungen");
+			createRow(sheet, "Rolle", "Schließzylinder", "Enthaltene Rolle");
+			createRow(sheet, "Lehrer", "Z1");
+			createRow(sheet, "", "", "Lehrer");
+
+			workbook.write(outputStream);
+		}
+
+		final ByteBuffer buffer = ByteBuffer.wrap(outputStream.toByteArray());
+		final IllegalArgumentException exception
+				= assertThrows(IllegalArgumentException.class, () -> ExcelFiles.read(buffer));
+		assertEquals("Row 3 of sheet \"Rollen-Berechtigungen\" lacks a role.", exception.getMessage());
+	}
+
+	@Test
+	@PackagePrivate
+	void testReadFormulas() throws IOException {
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		try (Workbook workbook = new XSSFWorkbook()) {
+			Sheet sheet = workbook.createSheet("Transponder");
+			createRow(sheet, "ID", "Name", "Nachname", "Vorname", "Status");
+			createRow(sheet, "K1", "", "Müller", "Anna");
+			sheet.getRow(1).getCell(2).setCellFormula("CONCATENATE(\"Mül\", \"ler\")");
+
+			sheet = workbook.createSheet("Transponder-Berechtigungen");
+			createRow(sheet, "Transponder", "Rolle");
+			createRow(sheet, "K1", "Lehrer");
+
+			sheet = workbook.createSheet("Schließzylinder");
+			createRow(sheet, "ID", "Name", "Bereich", "Haus", "Status");
+			createRow(sheet, "Z1", "Tür 1", "", "Haus 1");
+			createRow(sheet, "Z2", "Tür 2", "", "Haus 1");
+			sheet.getRow(2).getCell(0).setCellFormula("\"Z\" & (1 + 1)");
+			sheet.getRow(2).getCell(1).setCellFormula("\"Tür \" & 2");
+
+			sheet = workbook.createSheet("Rollen-Berechtigungen");
+			createRow(sheet, "Rolle", "Schließzylinder");
+			createRow(sheet, "Lehrer", "Z1");
+			createRow(sheet, "Lehrer", "Z2");
+
+			workbook.write(outputStream);
+		}
+
+		final KeyCylinderPermissions permissions = ExcelFiles.read(ByteBuffer.wrap(outputStream.toByteArray()));
+		assertEquals(Arrays.asList("Müller, Anna"),
+				permissions.getKeys().stream().map(Key::getTitle).collect(toList()));
+		assertEquals(Arrays.asList("Z1", "Z2"),
+				permissions.getCylinders().stream().map(Cylinder::getId).collect(toList()));
+		assertEquals(Arrays.asList("Haus 1, Tür 1", "Haus 1, Tür 2"),
+				permissions.getCylinders().stream().map(Cylinder::getTitle).collect(toList()));
+		assertEquals(new HashSet<>(permissions.getCylinders()),
+				permissions.getPermissions(permissions.getKeys().iterator().next()));
+	}
+
+	@Test
+	@PackagePrivate
+	void testReadFiltered() throws IOException {
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		try (Workbook workbook = new XSSFWorkbook()) {
+			Sheet sheet = workbook.createSheet("Transponder");
+			createRow(sheet, "ID", "Name", "Nachname", "Vorname", "Gruppe", "Status");
+			createRow(sheet, "K1", "", "Müller", "Anna", "Lehrer");
+			createRow(sheet, "K2", "", "Schmidt", "Bernd", "Schüler");
+
+			sheet = workbook.createSheet("Transponder-Berechtigungen");
+			createRow(sheet, "Transponder", "Rolle");
+			createRow(sheet, "K1", "Lehrer");
+			createRow(sheet, "K2", "Schüler");
+
+			sheet = workbook.createSheet("Schließzylinder");
+			createRow(sheet, "ID", "Name", "Bereich", "Haus", "Status");
+			createRow(sheet, "Z1", "Tür 1", "Bereich A", "Haus 1");
+			createRow(sheet, "Z2", "Tür 2", "Bereich B", "Haus 2");
+
+			sheet = workbook.createSheet("Rollen-Berechtigungen");
+			createRow(sheet, "Rolle", "Schließzylinder");
+			createRow(sheet, "Lehrer", "Z1");
+			createRow(sheet, "Lehrer", "Z2");
+			createRow(sheet, "Schüler", "Z1");
+
+			workbook.write(outputStream);
+		}
+		final ByteBuffer buffer = ByteBuffer.wrap(outputStream.toByteArray());
+
+		KeyCylinderPermissions permissions = ExcelFiles.read(buffer,
+				ReadOptions.DEFAULT.withBuilding(Optional.of("haus 2")).withGroup(Optional.of("Lehrer")));
+		assertEquals(Arrays.asList("K1"), permissions.getKeys().stream().map(Key::getId).collect(toList()));
+		assertEquals(Arrays.asList("Z2"), permissions.getCylinders().stream().map(Cylinder::getId).collect(toList()));
+		assertEquals(new HashSet<>(permissions.getCylinders()),
+				permissions.getPermissions(permissions.getKeys().iterator().next()));
+
+		permissions = ExcelFiles.read(buffer, ReadOptions.DEFAULT.withSection(Optional.of("Bereich A")));
+		assertEquals(Arrays.asList("K1", "K2"), permissions.getKeys().stream().map(Key::getId).collect(toList()));
+		assertEquals(Arrays.asList("Z1"), permissions.getCylinders().stream().map(Cylinder::getId).collect(toList()));
+	}
+
+	@Test
+	@PackagePrivate
+	void testReadFilteredUnsupported() throws IOException {
+		// The fixture contains no group column
+		final ByteBuffer buffer = ByteBuffer.wrap(Fixtures.createExcel(12, 8));
+		final UnsupportedFilterException exception = assertThrows(UnsupportedFilterException.class,
+				() -> ExcelFiles.read(buffer, ReadOptions.DEFAULT.withGroup(Optional.of("Lehrer"))));
+		assertEquals(
+				"The Excel document does not contain the column \"Gruppe\", therefore it cannot be filtered by the column \"Gruppe\".",
+				exception.getMessage());
+	}
+}
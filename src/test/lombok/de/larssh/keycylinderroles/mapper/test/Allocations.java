@@ -0,0 +1,85 @@
+package de.larssh.keycylinderroles.mapper.test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.sun.management.ThreadMXBean;
+
+import de.larssh.utils.function.ThrowingRunnable;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Measuring the number of bytes allocated by a piece of code
+ */
+@UtilityClass
+public class Allocations {
+	/**
+	 * Number of measurements, from which the smallest one is taken
+	 */
+	private static final int MEASUREMENTS = 3;
+
+	private static final ThreadMXBean THREAD_MX_BEAN = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	/**
+	 * Asserts that {@code runnable} allocates no more than {@code budget} bytes.
+	 *
+	 * <p>
+	 * {@code runnable} is executed once for warming up (class loading and static
+	 * initialization) and then measured multiple times. The smallest measurement is
+	 * compared against the budget.
+	 *
+	 * @param budget   the maximum number of bytes to allocate
+	 * @param runnable the code to measure
+	 */
+	public static void assertBudget(final long budget, final ThrowingRunnable runnable) {
+		runnable.run();
+
+		long allocated = Long.MAX_VALUE;
+		for (int measurement = 0; measurement < MEASUREMENTS; measurement += 1) {
+			allocated = Math.min(allocated, measure(runnable));
+		}
+
+		final long finalAllocated = allocated;
+		assertTrue(allocated <= budget,
+				() -> String.format("Allocated %,d bytes, exceeding the budget of %,d bytes.", finalAllocated, budget));
+	}
+
+	/**
+	 * Measures the number of bytes allocated while executing {@code runnable}.
+	 *
+	 * <p>
+	 * Allocations of all threads are summed up, as readers might parallelize their
+	 * work using other threads. Therefore tests using this method must not run
+	 * concurrently to other tests.
+	 *
+	 * @param runnable the code to measure
+	 * @return the number of bytes allocated
+	 */
+	public static long measure(final ThrowingRunnable runnable) {
+		final Map<Long, Long> before = getAllocatedBytes();
+		runnable.run();
+		final Map<Long, Long> after = getAllocatedBytes();
+
+		long allocated = 0;
+		for (final Map.Entry<Long, Long> entry : after.entrySet()) {
+			allocated += Math.max(0, entry.getValue() - before.getOrDefault(entry.getKey(), 0L));
+		}
+		return allocated;
+	}
+
+	private static Map<Long, Long> getAllocatedBytes() {
+		final long[] threadIds = THREAD_MX_BEAN.getAllThreadIds();
+		final long[] allocatedBytes = THREAD_MX_BEAN.getThreadAllocatedBytes(threadIds);
+
+		final Map<Long, Long> result = new HashMap<>(threadIds.length);
+		for (int index = 0; index < threadIds.length; index += 1) {
+			if (allocatedBytes[index] >= 0) {
+				result.put(threadIds[index], allocatedBytes[index]);
+			}
+		}
+		return result;
+	}
+}
@@ -0,0 +1,143 @@
+package de.larssh.keycylinderroles.mapper.test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.IntFunction;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Generating documents of fixed sizes for tests
+ *
+ * <p>
+ * Keys are named {@code K<index>} and cylinders {@code Z<index>}. Every third
+ * key is a teacher, allowed to open every second cylinder. All other keys are
+ * students, allowed to open every third cylinder. In Excel documents students
+ * are allowed to open every third cylinder starting with the second one, so
+ * that comparing CSV and Excel documents results in differences.
+ */
+@UtilityClass
+@SuppressWarnings("checkstyle:MultipleStringLiterals")
+public class Fixtures {
+	private static final int NUMBER_OF_BUILDINGS = 4;
+
+	/**
+	 * Creates the content of a CSV file in the export format of SimonVoss Locking
+	 * System Management Basic.
+	 *
+	 * @param numberOfKeys      the number of keys
+	 * @param numberOfCylinders the number of cylinders
+	 * @return CSV file content encoded in UTF-16 LE
+	 */
+	public static byte[] createCsv(final int numberOfKeys, final int numberOfCylinders) {
+		final StringBuilder builder = new StringBuilder();
+		appendCsvHeaderRow(builder, numberOfKeys, key -> isTeacher(key) ? "Lehrer" : "Schüler");
+		appendCsvHeaderRow(builder, numberOfKeys, key -> "Vorname " + key);
+		appendCsvHeaderRow(builder, numberOfKeys, key -> "Nachname " + key);
+		appendCsvHeaderRow(builder, numberOfKeys, key -> "");
+		appendCsvHeaderRow(builder, numberOfKeys, key -> "K" + key);
+
+		for (int cylinder = 0; cylinder < numberOfCylinders; cylinder += 1) {
+			builder.append("Haus ")
+					.append(cylinder % NUMBER_OF_BUILDINGS)
+					.append(";Z")
+					.append(cylinder)
+					.append(";Tür ")
+					.append(cylinder);
+			for (int key = 0; key < numberOfKeys; key += 1) {
+				builder.append(';').append(allows(key, cylinder) ? "X" : "");
+			}
+			builder.append("\r\n");
+		}
+		return builder.toString().getBytes(StandardCharsets.UTF_16LE);
+	}
+
+	private static void appendCsvHeaderRow(final StringBuilder builder,
+			final int numberOfKeys,
+			final IntFunction<String> value) {
+		builder.append(";;");
+		for (int key = 0; key < numberOfKeys; key += 1) {
+			builder.append(';').append(value.apply(key));
+		}
+		builder.append("\r\n");
+	}
+
+	/**
+	 * Creates the content of an Excel document containing role based permissions.
+	 *
+	 * @param numberOfKeys      the number of keys
+	 * @param numberOfCylinders the number of cylinders
+	 * @return XLSX file content
+	 * @throws IOException on IO error
+	 */
+	public static byte[] createExcel(final int numberOfKeys, final int numberOfCylinders) throws IOException {
+		try (Workbook workbook = new XSSFWorkbook()) {
+			Sheet sheet = workbook.createSheet("Transponder");
+			createRow(sheet, 0, "ID", "Name", "Nachname", "Vorname", "Status");
+			for (int key = 0; key < numberOfKeys; key += 1) {
+				createRow(sheet, key + 1, "K" + key, "", "Nachname " + key, "Vorname " + key, "");
+			}
+
+			sheet = workbook.createSheet("Transponder-Berechtigungen");
+			createRow(sheet, 0, "Transponder", "Rolle");
+			for (int key = 0; key < numberOfKeys; key += 1) {
+				createRow(sheet, key + 1, "K" + key, isTeacher(key) ? "Lehrer" : "Schüler");
+			}
+
+			sheet = workbook.createSheet("Schließzylinder");
+			createRow(sheet, 0, "ID", "Name", "Bereich", "Haus", "Status");
+			for (int cylinder = 0; cylinder < numberOfCylinders; cylinder += 1) {
+				createRow(sheet,
+						cylinder + 1,
+						"Z" + cylinder,
+						"Tür " + cylinder,
+						"",
+						"Haus " + cylinder % NUMBER_OF_BUILDINGS,
+						"");
+			}
+
+			sheet = workbook.createSheet("Rollen-Berechtigungen");
+			createRow(sheet, 0, "Rolle", "Schließzylinder");
+			int row = 1;
+			for (int cylinder = 0; cylinder < numberOfCylinders; cylinder += 1) {
+				if (allows(0, cylinder)) {
+					createRow(sheet, row, "Lehrer", "Z" + cylinder);
+					row += 1;
+				}
+				if (allowsStudentInExcel(cylinder)) {
+					createRow(sheet, row, "Schüler", "Z" + cylinder);
+					row += 1;
+				}
+			}
+
+			final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+			workbook.write(outputStream);
+			return outputStream.toByteArray();
+		}
+	}
+
+	private static void createRow(final Sheet sheet, final int rowIndex, final String... values) {
+		final Row row = sheet.createRow(rowIndex);
+		for (int column = 0; column < values.length; column += 1) {
+			row.createCell(column).setCellValue(values[column]);
+		}
+	}
+
+	private static boolean allows(final int key, final int cylinder) {
+		return isTeacher(key) ? cylinder % 2 == 0 : cylinder % 3 == 0;
+	}
+
+	private static boolean allowsStudentInExcel(final int cylinder) {
+		return cylinder % 3 == 1;
+	}
+
+	private static boolean isTeacher(final int key) {
+		return key % 3 == 0;
+	}
+}
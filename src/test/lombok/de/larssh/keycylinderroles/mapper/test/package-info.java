@@ -0,0 +1,5 @@
+/**
+ * Test utilities
+ */
+@de.larssh.utils.annotations.NonNullByDefault
+package de.larssh.keycylinderroles.mapper.test;
@@ -0,0 +1,73 @@
+package de.larssh.keycylinderroles.mapper.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import de.larssh.utils.annotations.PackagePrivate;
+import lombok.NoArgsConstructor;
+
+/**
+ * {@link ByteBuffers}
+ */
+@NoArgsConstructor
+@SuppressWarnings("java:S5786")
+public class ByteBuffersTest {
+	@Test
+	@PackagePrivate
+	void testMap() throws IOException {
+		final Path path = Files.createTempFile(getClass().getSimpleName(), ".csv");
+		try {
+			// Empty files are streamed, as they cannot be told apart from pipes
+			assertEquals(Optional.empty(), ByteBuffers.map(path));
+			assertEquals(Optional.empty(), ByteBuffers.map(path.getParent()));
+
+			Files.write(path, new byte[] { 1, 2, 3 });
+			assertEquals(Optional.of(ByteBuffer.wrap(new byte[] { 1, 2, 3 })), ByteBuffers.map(path));
+		} finally {
+			Files.delete(path);
+		}
+	}
+
+	@Test
+	@PackagePrivate
+	void testNewInputStream() throws IOException {
+		final ByteBuffer buffer = ByteBuffer.wrap(new byte[] { 1, 2, 3, (byte) 0xFF });
+		buffer.position(1);
+
+		final InputStream inputStream = ByteBuffers.newInputStream(buffer);
+		assertTrue(inputStream.markSupported());
+		assertEquals(3, inputStream.available());
+		assertEquals(2, inputStream.read());
+
+		inputStream.mark(2);
+		assertEquals(3, inputStream.read());
+		assertEquals(0xFF, inputStream.read());
+		assertEquals(-1, inputStream.read());
+
+		inputStream.reset();
+		final byte[] bytes = new byte[4];
+		assertEquals(2, inputStream.read(bytes, 1, 3));
+		assertEquals(-1, inputStream.read(bytes, 0, 1));
+		assertEquals(3, bytes[1]);
+
+		// The position of the buffer is not modified
+		assertEquals(1, buffer.position());
+	}
+
+	@Test
+	@PackagePrivate
+	void testResetWithoutMark() {
+		final InputStream inputStream = ByteBuffers.newInputStream(ByteBuffer.wrap(new byte[] { 1 }));
+		assertThrows(IOException.class, inputStream::reset);
+	}
+}
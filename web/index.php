@@ -23,19 +23,16 @@ if ($isPostRequest) {
 	$source = null;
 	$destination = null;
 	if (isset($_FILES['source'])) {
-		$temp = tempnam('temp', '');
-		unlink($temp);
-		mkdir($temp);
-
-		$source = $temp . '/_' . preg_replace('/[^ !#$%&\'()+,\\-.0-9;=@A-Z[\\]^_a-z{}~]+/', '', basename($_FILES['source']['name']));
-		if ($_FILES['source']['error'] != UPLOAD_ERR_OK || !move_uploaded_file($_FILES['source']['tmp_name'], $source)) {
+		// The Key Cylinder Roles Mapper determines the document types by their content. Therefore uploaded files are passed as is.
+		$source = $_FILES['source']['tmp_name'];
+		if ($_FILES['source']['error'] != UPLOAD_ERR_OK || !is_uploaded_file($source)) {
 			http_response_code(400);
 			$message = 'Beim Hochladen des Ist-Dokuments ist ein Fehler aufgetreten. Versuchen Sie es erneut.';
 			$source = null;
 		}
 
-		$destination = $temp . '/_' . preg_replace('/[^ !#$%&\'()+,\\-.0-9;=@A-Z[\\]^_a-z{}~]+/', '', basename($_FILES['destination']['name']));
-		if ($_FILES['destination']['error'] != UPLOAD_ERR_OK || !move_uploaded_file($_FILES['destination']['tmp_name'], $destination)) {
+		$destination = $_FILES['destination']['tmp_name'];
+		if ($_FILES['destination']['error'] != UPLOAD_ERR_OK || !is_uploaded_file($destination)) {
 			http_response_code(400);
 			$message = 'Beim Hochladen des Planungsdokuments ist ein Fehler aufgetreten. Versuchen Sie es erneut.';
 			$destination = null;
@@ -59,8 +56,6 @@ if ($isPostRequest) {
 			} else {
 				$message = 'Das Vergleichen der Dokumente ist unerwartet fehlgeschlagen.';
 			}
-		} finally {
-			deleteRecursively($temp);
 		}
 		if ($exit) {
 			exit;
@@ -81,23 +76,6 @@ function callKeyCylinderRolesMapper($source, $destination) {
 	return $result;
 }
 
-function deleteRecursively($path) {
-	if (is_file($path)) {
-		return unlink($path);
-	}
-
-	if (is_dir($path)) {
-		foreach (scandir($path) as $file) {
-			if ($file !== '.' && $file !== '..') {
-				deleteRecursively($path . '/' . $file);
-			}
-		}
-		return rmdir($path);
-	}
-
-	return !file_exists($path);
-}
-
 // Content Type
 $type = 'application/xhtml+xml';
 if (stripos($_SERVER['HTTP_ACCEPT'], $type) === false) {